@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.janilla.http.HttpExchange;
+
+public class AdmissionControl {
+
+	public static final List<String> ROUTE_CLASSES = List.of("reserved", "diagnostics", "auth", "upload", "list",
+			"write", "read");
+
+	protected final CollectionChanges collectionChanges;
+
+	protected final Map<String, Lane> lanes = new LinkedHashMap<>();
+
+	protected final SettingsSource settings;
+
+	public AdmissionControl(Properties configuration, String configurationKey, CollectionChanges collectionChanges,
+			SettingsSource settings) {
+		this.collectionChanges = collectionChanges;
+		this.settings = settings;
+		var k = configurationKey + ".admission.";
+		for (var x : ROUTE_CLASSES) {
+			var ss = configuration.getProperty(k + x).split(",");
+			lanes.put(x, new Lane(x, Integer.parseInt(ss[0].trim()), Integer.parseInt(ss[1].trim()),
+					Duration.parse(ss[2].trim()).toNanos()));
+		}
+	}
+
+	public <T> T call(HttpExchange exchange, Supplier<T> supplier) {
+		var l = lanes.get(routeClass(exchange));
+		boolean a;
+		try {
+			a = l.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			a = false;
+		}
+		if (!a) {
+			var r = settings.get().admissionRetryAfter().toSeconds();
+			exchange.response().setHeaderValue("retry-after", String.valueOf(Math.max(r, 1)));
+			throw new ServiceUnavailableException("Server is busy, please retry later");
+		}
+
+		var n = System.nanoTime();
+		try {
+			return supplier.get();
+		} finally {
+			l.release(System.nanoTime() - n);
+		}
+	}
+
+	public String routeClass(HttpExchange exchange) {
+		var rq = exchange.request();
+		var m = rq.getMethod();
+		var p = rq.getPath();
+		if (m.equals("GET") && p.equals("/api/users/me"))
+			return "reserved";
+		if (p.startsWith("/api/_") || p.equals("/api/metrics"))
+			return "diagnostics";
+		if (m.equals("OPTIONS"))
+			return "read";
+		if (p.equals("/api/files/upload") || p.endsWith("/bulk"))
+			return "upload";
+		var s = p.startsWith("/api/users/") ? p.substring("/api/users/".length()) : null;
+		if (m.equals("POST") && s != null && !s.isEmpty() && !s.contains("/")
+				&& !s.chars().allMatch(Character::isDigit))
+			return "auth";
+		if (!m.equals("GET") && !m.equals("HEAD"))
+			return "write";
+		if (collectionChanges.collection(p) != null) {
+			var i = p.indexOf('/', 5);
+			var t = i != -1 ? p.substring(i + 1) : "";
+			if (t.isEmpty() || t.equals("cursor"))
+				return "list";
+		}
+		return "read";
+	}
+
+	public List<Stats> stats() {
+		return lanes.values().stream().map(Lane::stats).toList();
+	}
+
+	public record Stats(String routeClass, int limit, int inFlight, int waiting, long admitted, long rejected,
+			long minLatencyMicros, long latencyMicros) {
+	}
+
+	protected class Lane {
+
+		protected final LongAdder admitted = new LongAdder();
+
+		protected final Condition available;
+
+		protected final ReentrantLock lock = new ReentrantLock();
+
+		protected final int maxLimit;
+
+		protected final int minLimit;
+
+		protected final String name;
+
+		protected final LongAdder rejected = new LongAdder();
+
+		protected final long timeout;
+
+		protected int inFlight;
+
+		protected double latency;
+
+		protected double limit;
+
+		protected double minLatency;
+
+		protected int waiting;
+
+		protected Lane(String name, int minLimit, int maxLimit, long timeout) {
+			this.name = name;
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			this.timeout = timeout;
+			available = lock.newCondition();
+			limit = minLimit;
+		}
+
+		protected boolean acquire() throws InterruptedException {
+			lock.lock();
+			try {
+				var n = timeout;
+				if (inFlight >= (int) limit) {
+					waiting++;
+					try {
+						while (inFlight >= (int) limit) {
+							if (n <= 0) {
+								rejected.increment();
+								return false;
+							}
+							n = available.awaitNanos(n);
+						}
+					} finally {
+						waiting--;
+					}
+				}
+				inFlight++;
+				admitted.increment();
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		protected void release(long nanos) {
+			lock.lock();
+			try {
+				var b = inFlight;
+				inFlight--;
+				if (minLimit < maxLimit)
+					adjust(nanos, b);
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		protected void adjust(long nanos, int busy) {
+			latency = latency == 0 ? nanos : latency * 0.9 + nanos * 0.1;
+			minLatency = minLatency == 0 ? latency : Math.min(minLatency * 1.001, latency);
+			var g = Math.clamp(settings.get().admissionLatencyTolerance() * minLatency / latency, 0.5, 1.0);
+			var l = busy * 2 >= limit ? limit * g + Math.sqrt(limit) : limit * g;
+			limit = Math.clamp(limit * 0.8 + l * 0.2, minLimit, maxLimit);
+		}
+
+		protected Stats stats() {
+			lock.lock();
+			try {
+				var u = TimeUnit.NANOSECONDS;
+				return new Stats(name, (int) limit, inFlight, waiting, admitted.sum(), rejected.sum(),
+						u.toMicros((long) minLatency), u.toMicros((long) latency));
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
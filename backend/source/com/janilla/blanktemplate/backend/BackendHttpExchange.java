@@ -24,18 +24,39 @@
  */
 package com.janilla.blanktemplate.backend;
 
-import java.util.Properties;
-
 import com.janilla.backend.cms.AbstractUserHttpExchange;
 import com.janilla.backend.persistence.Persistence;
+import com.janilla.http.HttpCookie;
 import com.janilla.http.HttpRequest;
 import com.janilla.http.HttpResponse;
 
 public class BackendHttpExchange extends AbstractUserHttpExchange<UserImpl> {
 
-	public BackendHttpExchange(HttpRequest request, HttpResponse response, Properties configuration,
-			String configurationKey, Persistence persistence) {
-		super(request, response, configuration.getProperty(configurationKey + ".jwt.cookie"),
-				configuration.getProperty(configurationKey + ".jwt.key"), persistence.crud(UserImpl.class));
+	protected final SessionUserCache sessionUserCache;
+
+	protected final String tokenCookie;
+
+	public BackendHttpExchange(HttpRequest request, HttpResponse response, SettingsSource settings,
+			Persistence persistence, SessionUserCache sessionUserCache) {
+		var s = settings.get();
+		super(request, response, s.jwtCookie(), s.jwtKey(), persistence.crud(UserImpl.class));
+		this.sessionUserCache = sessionUserCache;
+		tokenCookie = s.jwtCookie();
+	}
+
+	@Override
+	public UserImpl sessionUser() {
+		var t = token();
+		return t != null ? sessionUserCache.get(t, super::sessionUser) : null;
+	}
+
+	public boolean admin() {
+		var u = sessionUser();
+		return u != null && u.hasRole(UserRoleImpl.ADMIN);
+	}
+
+	public String token() {
+		return request().getHeaderValues("cookie").map(HttpCookie::parse).filter(x -> x.name().equals(tokenCookie))
+				.map(HttpCookie::value).filter(x -> !x.isEmpty()).findFirst().orElse(null);
 	}
 }
@@ -28,14 +28,22 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Modifier;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -45,19 +53,30 @@ import javax.net.ssl.SSLContext;
 import com.janilla.backend.cms.Cms;
 import com.janilla.backend.persistence.Persistence;
 import com.janilla.backend.persistence.PersistenceBuilder;
+import com.janilla.blanktemplate.common.ContentCoding;
+import com.janilla.blanktemplate.common.ExchangeEvent;
+import com.janilla.blanktemplate.common.ForbiddenException;
+import com.janilla.blanktemplate.common.RequestMetrics;
+import com.janilla.blanktemplate.common.RequestScope;
+import com.janilla.blanktemplate.common.RouteTable;
 import com.janilla.http.HttpClient;
 import com.janilla.http.HttpExchange;
 import com.janilla.http.HttpHandler;
 import com.janilla.http.HttpHandlerFactory;
+import com.janilla.http.HttpRequest;
+import com.janilla.http.HttpResponse;
 import com.janilla.http.HttpServer;
 import com.janilla.ioc.DiFactory;
 import com.janilla.java.DollarTypeResolver;
 import com.janilla.java.Java;
 import com.janilla.java.TypeResolver;
+import com.janilla.json.Json;
+import com.janilla.json.ReflectionJsonIterator;
 import com.janilla.persistence.Store;
 import com.janilla.web.ApplicationHandlerFactory;
 import com.janilla.web.Handle;
 import com.janilla.web.Invocable;
+import com.janilla.web.InvocationHandlerFactory;
 import com.janilla.web.InvocationResolver;
 import com.janilla.web.NotFoundException;
 import com.janilla.web.RenderableFactory;
@@ -65,7 +84,7 @@ import com.janilla.web.RenderableFactory;
 public class BlankBackend {
 
 	public static final String[] DI_PACKAGES = { "com.janilla.web", "com.janilla.backend.cms",
-			"com.janilla.blanktemplate.backend" };
+			"com.janilla.blanktemplate.common", "com.janilla.blanktemplate.backend" };
 
 	public static final ScopedValue<BlankBackend> INSTANCE = ScopedValue.newInstance();
 
@@ -120,10 +139,22 @@ public class BlankBackend {
 		s.serve();
 	}
 
+	protected final AdmissionControl admissionControl;
+
 	protected final HttpHandlerFactory handlerFactory;
 
 	protected final Properties configuration;
 
+	protected final CollectionChanges collectionChanges;
+
+	protected final CollectionPages collectionPages;
+
+	protected final CollectionVersions collectionVersions;
+
+	protected final ConverterRegistry converterRegistry;
+
+	protected final CursorCipher cursorCipher;
+
 	protected final Path configurationFile;
 
 	protected final String configurationKey;
@@ -134,18 +165,46 @@ public class BlankBackend {
 
 	protected final HttpHandler handler;
 
+	protected final GroupCommitter groupCommitter;
+
+	protected final ImageDerivatives imageDerivatives;
+
 	protected final boolean includeType;
 
+	protected final Map<Class<?>, Object> instances = new ConcurrentHashMap<>();
+
+	protected final Map<Class<?>, Class<?>> instanceTypes;
+
 	protected final InvocationResolver invocationResolver;
 
+	protected final JsonWriters jsonWriters;
+
+	protected final PasswordHasher passwordHasher;
+
 	protected final Persistence persistence;
 
 	protected final RenderableFactory renderableFactory;
 
+	protected final RequestMetrics requestMetrics;
+
+	protected final ResponseCache responseCache;
+
 	protected final List<Class<?>> resolvables;
 
+	protected final RouteTable routeTable;
+
+	protected final Map<Class<?>, SchemaDocument> schemas = new ConcurrentHashMap<>();
+
+	protected final SessionUserCache sessionUserCache;
+
+	protected final SettingsSource settings;
+
+	protected final SortedIndexes sortedIndexes;
+
 	protected final List<Class<?>> storables;
 
+	protected final TextIndexes textIndexes;
+
 	protected final TypeResolver typeResolver;
 
 	public BlankBackend(DiFactory diFactory, Path configurationFile) {
@@ -160,6 +219,12 @@ public class BlankBackend {
 		diFactory.context(this);
 		configuration = diFactory.create(diFactory.actualType(Properties.class),
 				Collections.singletonMap("file", configurationFile));
+		settings = diFactory.create(diFactory.actualType(SettingsSource.class));
+		passwordHasher = diFactory.create(diFactory.actualType(PasswordHasher.class));
+		converterRegistry = diFactory.create(diFactory.actualType(ConverterRegistry.class));
+		cursorCipher = diFactory.create(diFactory.actualType(CursorCipher.class));
+		sessionUserCache = diFactory.create(diFactory.actualType(SessionUserCache.class));
+		imageDerivatives = diFactory.create(diFactory.actualType(ImageDerivatives.class));
 
 		{
 			Map<String, Class<?>> m = diFactory.types().stream()
@@ -177,8 +242,24 @@ public class BlankBackend {
 					Map.of("databaseFile", Path.of(f)));
 			persistence = b.build(diFactory);
 		}
+		groupCommitter = diFactory.create(diFactory.actualType(GroupCommitter.class));
+		collectionChanges = diFactory.create(diFactory.actualType(CollectionChanges.class));
+		admissionControl = diFactory.create(diFactory.actualType(AdmissionControl.class));
+		sortedIndexes = diFactory.create(diFactory.actualType(SortedIndexes.class));
+		textIndexes = diFactory.create(diFactory.actualType(TextIndexes.class));
+		collectionVersions = diFactory.create(diFactory.actualType(CollectionVersions.class));
+		responseCache = diFactory.create(diFactory.actualType(ResponseCache.class));
 
 		includeType = true;
+		jsonWriters = diFactory.create(diFactory.actualType(JsonWriters.class));
+		collectionPages = diFactory.create(diFactory.actualType(CollectionPages.class));
+		instanceTypes = diFactory.types().stream()
+				.filter(x -> !x.isInterface() && !Modifier.isAbstract(x.getModifiers())
+						&& Arrays.stream(x.getMethods()).anyMatch(y -> y.isAnnotationPresent(Handle.class)))
+				.collect(Collectors.toMap(x -> x, x -> diFactory.actualType(x)));
+		routeTable = diFactory.create(diFactory.actualType(RouteTable.class));
+		instanceTypes.keySet().stream().sorted(Comparator.comparing(Class::getName)).forEach(routeTable::addType);
+		requestMetrics = diFactory.create(diFactory.actualType(RequestMetrics.class));
 		invocationResolver = diFactory.create(diFactory.actualType(InvocationResolver.class),
 				Map.of("invocables",
 						diFactory.types().stream()
@@ -186,13 +267,7 @@ public class BlankBackend {
 										.filter(y -> !Modifier.isStatic(y.getModifiers()) && !y.isBridge())
 										.map(y -> new Invocable(x, y)))
 								.toList(),
-						"instanceResolver", (Function<Class<?>, Object>) x -> {
-							var y = diFactory.context();
-//							IO.println("x=" + x + ", y=" + y);
-							return x.isAssignableFrom(y.getClass()) ? diFactory.context()
-									: diFactory.create(diFactory.actualType(x),
-											Map.of("invocationResolver", InvocationResolver.INSTANCE.get()));
-						}));
+						"instanceResolver", (Function<Class<?>, Object>) this::instance));
 		renderableFactory = diFactory.create(diFactory.actualType(RenderableFactory.class));
 //		{
 //			var hf = diFactory.create(diFactory.actualType(ApplicationHandlerFactory.class));
@@ -204,17 +279,47 @@ public class BlankBackend {
 //			});
 //		}
 		handlerFactory = diFactory.create(diFactory.actualType(ApplicationHandlerFactory.class));
+		routeTable.compile(this::routeFactory);
 		handler = this::handle;
+		schemas.computeIfAbsent(dataClass(), this::schemaDocument);
+	}
+
+	public AdmissionControl admissionControl() {
+		return admissionControl;
+	}
+
+	public CollectionChanges collectionChanges() {
+		return collectionChanges;
+	}
+
+	public CollectionPages collectionPages() {
+		return collectionPages;
+	}
+
+	public CollectionVersions collectionVersions() {
+		return collectionVersions;
 	}
 
 	public Properties configuration() {
 		return configuration;
 	}
 
+	public Path configurationFile() {
+		return configurationFile;
+	}
+
 	public String configurationKey() {
 		return configurationKey;
 	}
 
+	public ConverterRegistry converterRegistry() {
+		return converterRegistry;
+	}
+
+	public CursorCipher cursorCipher() {
+		return cursorCipher;
+	}
+
 	public Predicate<HttpExchange> drafts() {
 		return drafts;
 	}
@@ -223,10 +328,18 @@ public class BlankBackend {
 		return diFactory;
 	}
 
+	public GroupCommitter groupCommitter() {
+		return groupCommitter;
+	}
+
 	public HttpHandler handler() {
 		return handler;
 	}
 
+	public ImageDerivatives imageDerivatives() {
+		return imageDerivatives;
+	}
+
 	public boolean includeType() {
 		return includeType;
 	}
@@ -235,6 +348,14 @@ public class BlankBackend {
 		return invocationResolver;
 	}
 
+	public PasswordHasher passwordHasher() {
+		return passwordHasher;
+	}
+
+	public JsonWriters jsonWriters() {
+		return jsonWriters;
+	}
+
 	public Persistence persistence() {
 		return persistence;
 	}
@@ -243,39 +364,209 @@ public class BlankBackend {
 		return renderableFactory;
 	}
 
+	public RequestMetrics requestMetrics() {
+		return requestMetrics;
+	}
+
+	public ResponseCache responseCache() {
+		return responseCache;
+	}
+
 	public List<Class<?>> resolvables() {
 		return resolvables;
 	}
 
+	public RouteTable routeTable() {
+		return routeTable;
+	}
+
+	public SessionUserCache sessionUserCache() {
+		return sessionUserCache;
+	}
+
+	public SettingsSource settings() {
+		return settings;
+	}
+
+	public SortedIndexes sortedIndexes() {
+		return sortedIndexes;
+	}
+
 	public List<Class<?>> storables() {
 		return storables;
 	}
 
+	public TextIndexes textIndexes() {
+		return textIndexes;
+	}
+
 	public TypeResolver typeResolver() {
 		return typeResolver;
 	}
 
 	@Handle(method = "GET", path = "/api/schema")
-	public Map<String, Map<String, Map<String, Object>>> schema() {
-		return Cms.schema(dataClass(), diFactory::actualType);
+	public void schema(HttpRequest request, HttpResponse response) throws IOException {
+		var s = schemas.computeIfAbsent(dataClass(), this::schemaDocument);
+		var c = ContentCoding.negotiate(request.getHeaderValue("accept-encoding"));
+		var t = s.etag(c);
+		response.setHeaderValue("cache-control", "public, max-age=" + settings.get().schemaMaxAge().toSeconds());
+		response.setHeaderValue("etag", t);
+		response.setHeaderValue("vary", "Accept-Encoding");
+		var n = request.getHeaderValue("if-none-match");
+		if (n != null && FileSender.matches(n, t)) {
+			response.setStatus(304);
+			return;
+		}
+
+		var bb = c == null ? s.bytes() : c.equals("gzip") ? s.gzip() : s.deflate();
+		response.setStatus(200);
+		response.setHeaderValue("content-type", "application/json");
+		if (c != null)
+			response.setHeaderValue("content-encoding", c);
+		response.setHeaderValue("content-length", String.valueOf(bb.length));
+		FileSender.write(ByteBuffer.wrap(bb), (WritableByteChannel) response.getBody());
+	}
+
+	@Handle(method = "GET", path = "/api/_admission")
+	public List<AdmissionControl.Stats> admission(HttpExchange exchange) {
+		requireAdmin(exchange);
+		return admissionControl.stats();
+	}
+
+	@Handle(method = "GET", path = "/api/_cache")
+	public ResponseCache.Stats cache(HttpExchange exchange) {
+		requireAdmin(exchange);
+		return responseCache.stats();
+	}
+
+	@Handle(method = "GET", path = "/api/metrics")
+	public void metrics(HttpExchange exchange) throws IOException {
+		requireAdmin(exchange);
+		var response = exchange.response();
+		var b = new StringBuilder(requestMetrics.scrape());
+		var c = responseCache.stats();
+		b.append("# TYPE response_cache_entries gauge\nresponse_cache_entries ").append(c.entries()).append('\n');
+		b.append("# TYPE response_cache_weight_bytes gauge\nresponse_cache_weight_bytes ").append(c.weight())
+				.append('\n');
+		b.append("# TYPE response_cache_hits_total counter\nresponse_cache_hits_total ").append(c.hits()).append('\n');
+		b.append("# TYPE response_cache_misses_total counter\nresponse_cache_misses_total ").append(c.misses())
+				.append('\n');
+		b.append("# TYPE response_cache_evictions_total counter\nresponse_cache_evictions_total ")
+				.append(c.evictions()).append('\n');
+		var aa = admissionControl.stats();
+		b.append("# TYPE admission_limit gauge\n");
+		aa.forEach(x -> b.append("admission_limit{class=\"").append(x.routeClass()).append("\"} ").append(x.limit())
+				.append('\n'));
+		b.append("# TYPE admission_in_flight gauge\n");
+		aa.forEach(x -> b.append("admission_in_flight{class=\"").append(x.routeClass()).append("\"} ")
+				.append(x.inFlight()).append('\n'));
+		b.append("# TYPE admission_rejected_total counter\n");
+		aa.forEach(x -> b.append("admission_rejected_total{class=\"").append(x.routeClass()).append("\"} ")
+				.append(x.rejected()).append('\n'));
+		var bb = b.toString().getBytes(StandardCharsets.UTF_8);
+		response.setStatus(200);
+		response.setHeaderValue("cache-control", "no-store");
+		response.setHeaderValue("content-type", "text/plain; version=0.0.4; charset=utf-8");
+		response.setHeaderValue("content-length", String.valueOf(bb.length));
+		FileSender.write(ByteBuffer.wrap(bb), (WritableByteChannel) response.getBody());
+	}
+
+	@Handle(method = "GET", path = "/api/_routes")
+	public List<RouteTable.Route> routes(HttpExchange exchange) {
+		requireAdmin(exchange);
+		return routeTable.routes();
+	}
+
+	protected void requireAdmin(HttpExchange exchange) {
+		if (!(exchange instanceof BackendHttpExchange x && x.admin()))
+			throw new ForbiddenException("Admin role required");
 	}
 
 	protected Class<?> dataClass() {
 		return Data.class;
 	}
 
+	protected SchemaDocument schemaDocument(Class<?> dataClass) {
+		var m = Cms.schema(dataClass, diFactory::actualType);
+		var bb = Json.format(diFactory.create(diFactory.actualType(ReflectionJsonIterator.class),
+				Map.of("object", m, "includeType", includeType))).getBytes(StandardCharsets.UTF_8);
+		byte[] h;
+		try {
+			h = MessageDigest.getInstance("SHA-256").digest(bb);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		return new SchemaDocument(bb, ContentCoding.encode(bb, "gzip"), ContentCoding.encode(bb, "deflate"),
+				HexFormat.of().formatHex(h, 0, 16));
+	}
+
 	protected boolean handle(HttpExchange exchange) {
-		return ScopedValue.where(INSTANCE, this).call(() -> {
-			var h = handlerFactory
-					.createHandler(exchange.exception() != null ? exchange.exception() : exchange.request());
-			if (h == null)
-				throw new NotFoundException(exchange.request().getMethod() + " " + exchange.request().getTarget());
-			return h.handle(exchange);
+		if (exchange.exception() != null)
+			return ScopedValue.where(INSTANCE, this).call(() -> dispatch(exchange));
+		var rq = exchange.request();
+		var r = routeTable.match(rq.getMethod(), rq.getPath());
+		return ScopedValue.where(INSTANCE, this).where(RouteTable.ROUTE, r).call(() -> {
+			RequestMetrics.count(exchange);
+			var e = new ExchangeEvent();
+			e.begin();
+			var n = System.nanoTime();
+			var s = 500;
+			try {
+				var h = admissionControl.call(exchange, () -> dispatch(exchange));
+				s = exchange.response().getStatus();
+				return h;
+			} catch (RuntimeException x) {
+				s = RequestMetrics.status(x);
+				throw x;
+			} finally {
+				requestMetrics.record(exchange, r, s, System.nanoTime() - n);
+				e.end(exchange, r, s);
+			}
 		});
 	}
 
+	protected boolean dispatch(HttpExchange exchange) {
+		var x = exchange.exception();
+		var h = x == null ? routeTable.createHandler(RouteTable.ROUTE.get(), exchange.request()) : null;
+		if (h == null)
+			h = handlerFactory.createHandler(x != null ? x : exchange.request());
+		if (h == null)
+			throw new NotFoundException(exchange.request().getMethod() + " " + exchange.request().getTarget());
+		return h.handle(exchange);
+	}
+
+	protected Object instance(Class<?> type) {
+		var c = diFactory.context();
+//		IO.println("type=" + type + ", c=" + c);
+		if (type.isAssignableFrom(c.getClass()))
+			return c;
+		var t = instanceTypes.get(type);
+		if (t == null)
+			t = diFactory.actualType(type);
+		return t.isAnnotationPresent(RequestScope.class) ? newInstance(t)
+				: instances.computeIfAbsent(t, this::newInstance);
+	}
+
+	protected Object newInstance(Class<?> type) {
+		return diFactory.create(type, Map.of("invocationResolver", invocationResolver));
+	}
+
+	protected HttpHandlerFactory routeFactory(Invocable invocable) {
+		var r = diFactory.create(diFactory.actualType(InvocationResolver.class), Map.of("invocables",
+				List.of(invocable), "instanceResolver", (Function<Class<?>, Object>) this::instance));
+		return diFactory.create(diFactory.actualType(InvocationHandlerFactory.class),
+				Map.of("invocationResolver", r, "rootFactory", handlerFactory));
+	}
+
 	protected boolean testDrafts(HttpExchange x) {
 		var u = x instanceof BackendHttpExchange y ? y.sessionUser() : null;
 		return u != null;
 	}
+
+	protected record SchemaDocument(byte[] bytes, byte[] gzip, byte[] deflate, String hash) {
+
+		public String etag(String coding) {
+			return "\"" + hash + (coding != null ? "-" + coding : "") + "\"";
+		}
+	}
 }
@@ -24,21 +24,24 @@
  */
 package com.janilla.blanktemplate.backend;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
-import java.util.Properties;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.janilla.backend.cms.UserHttpExchange;
+import com.janilla.backend.persistence.Persistence;
+import com.janilla.blanktemplate.common.RouteTable;
+import com.janilla.cms.Document;
 import com.janilla.http.HttpExchange;
 import com.janilla.http.HttpHandlerFactory;
 import com.janilla.http.HttpRequest;
-import com.janilla.ioc.DiFactory;
 import com.janilla.java.Converter;
-import com.janilla.java.DollarTypeResolver;
-import com.janilla.java.NullTypeResolver;
 import com.janilla.java.TypeResolver;
 import com.janilla.web.HandleException;
 import com.janilla.web.Invocation;
@@ -48,23 +51,52 @@ import com.janilla.web.RenderableFactory;
 
 public class BlankBackendInvocationHandlerFactory extends InvocationHandlerFactory {
 
-	protected final Properties configuration;
+	protected final Map<Class<?>, BulkOperations<?>> bulkOperations = new ConcurrentHashMap<>();
 
-	protected final String configurationKey;
+	protected final CollectionChanges collectionChanges;
 
-	protected final DiFactory diFactory;
+	protected final CollectionPages collectionPages;
+
+	protected final CollectionVersions collectionVersions;
+
+	protected final ConverterRegistry converterRegistry;
+
+	protected final Predicate<HttpExchange> drafts;
+
+	protected final GroupCommitter groupCommitter;
 
 	protected final Set<String> guestPost;
 
+	protected final JsonWriters jsonWriters;
+
+	protected final Persistence persistence;
+
+	protected final ResponseCache responseCache;
+
+	protected final SessionUserCache sessionUserCache;
+
+	protected final SettingsSource settings;
+
 	protected final Set<String> userLoginLogout;
 
 	public BlankBackendInvocationHandlerFactory(InvocationResolver invocationResolver,
-			RenderableFactory renderableFactory, HttpHandlerFactory rootFactory, Properties configuration,
-			String configurationKey, DiFactory diFactory) {
+			RenderableFactory renderableFactory, HttpHandlerFactory rootFactory, ConverterRegistry converterRegistry,
+			SessionUserCache sessionUserCache, SettingsSource settings, CollectionChanges collectionChanges,
+			CollectionPages collectionPages, ResponseCache responseCache, Predicate<HttpExchange> drafts,
+			CollectionVersions collectionVersions, GroupCommitter groupCommitter, Persistence persistence,
+			JsonWriters jsonWriters) {
 		super(invocationResolver, renderableFactory, rootFactory);
-		this.configuration = configuration;
-		this.configurationKey = configurationKey;
-		this.diFactory = diFactory;
+		this.jsonWriters = jsonWriters;
+		this.persistence = persistence;
+		this.groupCommitter = groupCommitter;
+		this.collectionVersions = collectionVersions;
+		this.collectionChanges = collectionChanges;
+		this.collectionPages = collectionPages;
+		this.responseCache = responseCache;
+		this.drafts = drafts;
+		this.converterRegistry = converterRegistry;
+		this.sessionUserCache = sessionUserCache;
+		this.settings = settings;
 		guestPost = Stream.of("/api/users/first-register", "/api/users/forgot-password", "/api/users/login",
 				"/api/users/reset-password").collect(Collectors.toCollection(HashSet::new));
 		userLoginLogout = Stream.of("/api/users/login", "/api/users/logout")
@@ -77,14 +109,15 @@ public class BlankBackendInvocationHandlerFactory extends InvocationHandlerFacto
 		if (requireSessionEmail(rq))
 			((UserHttpExchange<?>) exchange).requireSessionEmail();
 
-		if (Boolean.parseBoolean(configuration.getProperty(configurationKey + ".live-demo"))) {
+		var s = settings.get();
+		if (s.liveDemo()) {
 			if (rq.getMethod().equals("GET") || userLoginLogout.contains(rq.getPath()))
 				;
 			else
 				throw new HandleException(new MethodBlockedException());
 		}
 
-		var o = configuration.getProperty(configurationKey + ".api.cors.origin");
+		var o = s.corsOrigin();
 		if (o != null && !o.isEmpty()) {
 			var rs = exchange.response();
 			rs.setHeaderValue("access-control-allow-credentials", "true");
@@ -98,7 +131,183 @@ public class BlankBackendInvocationHandlerFactory extends InvocationHandlerFacto
 //				e.printStackTrace();
 //			}
 
-		return super.handle(invocation, exchange);
+		var t = entityTag(exchange);
+		if (t == null)
+			return respond(invocation, exchange);
+		return ScopedValue.where(ResponseOutput.ENTITY_TAG, t).call(() -> respond(invocation, exchange));
+	}
+
+	protected boolean respond(Invocation invocation, HttpExchange exchange) {
+		var k = cacheKey(exchange);
+		if (k == null)
+			return dispatch(invocation, exchange);
+		var bb = responseCache.get(k);
+		if (bb != null) {
+			var w = new ResponseOutput(exchange);
+			try {
+				w.bytes(bb);
+				w.close();
+			} finally {
+				w.end();
+			}
+			return true;
+		}
+		var r = responseCache.recording(k);
+		return ScopedValue.where(ResponseCache.RECORDING, r).call(() -> {
+			var h = dispatch(invocation, exchange);
+			if (exchange.response().getStatus() == 200)
+				responseCache.put(r);
+			return h;
+		});
+	}
+
+	protected boolean dispatch(Invocation invocation, HttpExchange exchange) {
+		var rq = exchange.request();
+		var t = collectionChanges.collection(rq.getPath());
+		var d = new DispatchEvent();
+		d.begin();
+		try {
+			if (t != null && rq.getMethod().equals("GET") && rq.getPath().indexOf('/', 5) == -1
+					&& collectionPages.search(t, exchange))
+				return true;
+
+			boolean h;
+			Long c = null;
+			if (groupCommit(rq, t)) {
+				var x = commit(t, exchange);
+				write(x, exchange);
+				if (x instanceof Document<?> y && y.id() instanceof Long i)
+					c = i;
+				h = true;
+			} else
+				h = super.handle(invocation, exchange);
+			invalidateSessionUsers(exchange);
+			notifyChanges(rq, c);
+			return h;
+		} finally {
+			d.end(rq, RouteTable.ROUTE.isBound() ? RouteTable.ROUTE.get() : null);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Object commit(Class<?> type, HttpExchange exchange) {
+		var rq = exchange.request();
+		var b = bulkOperations.computeIfAbsent(type, x -> new BulkOperations(x, Set.of(), (y, _) -> y,
+				converterRegistry.get(null), groupCommitter, persistence, collectionChanges, settings));
+		var p = rq.getPath();
+		var i = p.indexOf('/', 5);
+		try {
+			return switch (rq.getMethod()) {
+			case "POST" -> b.createDocument(rq);
+			case "DELETE" -> b.deleteDocument(Long.valueOf(p.substring(i + 1)), rq);
+			default -> b.updateDocument(Long.valueOf(p.substring(i + 1)), rq);
+			};
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected void write(Object value, HttpExchange exchange) {
+		var o = new ResponseOutput(exchange);
+		try {
+			jsonWriters.write(value, o);
+			o.close();
+		} finally {
+			o.end();
+		}
+	}
+
+	protected boolean groupCommit(HttpRequest request, Class<?> type) {
+		if (type == null || type == UserImpl.class)
+			return false;
+		var p = request.getPath();
+		var i = p.indexOf('/', 5);
+		var s = i != -1 ? p.substring(i + 1) : null;
+		return switch (request.getMethod()) {
+		case "POST" -> s == null;
+		case "DELETE", "PATCH", "PUT" -> s != null && !s.isEmpty() && s.chars().allMatch(Character::isDigit);
+		default -> false;
+		};
+	}
+
+	protected String entityTag(HttpExchange exchange) {
+		var rq = exchange.request();
+		if (!rq.getMethod().equals("GET"))
+			return null;
+		var p = rq.getPath();
+		var e = collectionVersions.epoch() + "." + settings.generation();
+		if (p.equals("/api/users/me")) {
+			var u = exchange instanceof BackendHttpExchange x ? x.sessionUser() : null;
+			return "W/\"" + e + "-me-" + (u != null ? u.id() + "-" + collectionVersions.version(UserImpl.class, u.id())
+					: "none") + "\"";
+		}
+		var t = collectionChanges.collection(p);
+		if (t == null || collectionPages.explain(exchange))
+			return null;
+		var i = p.indexOf('/', 5);
+		var s = i != -1 ? p.substring(i + 1) : "";
+		var d = drafts.test(exchange) ? "-d" : "";
+		if (s.isEmpty() || s.equals("cursor"))
+			return "W/\"" + e + "-c" + collectionVersions.version(t) + d + "\"";
+		if (s.chars().allMatch(Character::isDigit))
+			return "W/\"" + e + "-" + s + "-" + collectionVersions.version(t, Long.valueOf(s)) + d + "\"";
+		return null;
+	}
+
+	protected ResponseCache.Key cacheKey(HttpExchange exchange) {
+		var rq = exchange.request();
+		if (!rq.getMethod().equals("GET"))
+			return null;
+		var p = rq.getPath();
+		var t = collectionChanges.collection(p);
+		if (t == null || t == UserImpl.class || collectionPages.explain(exchange))
+			return null;
+		var i = p.indexOf('/', 5);
+		var s = i != -1 ? p.substring(i + 1) : "";
+		return s.isEmpty() || s.equals("cursor") || s.chars().allMatch(Character::isDigit)
+				? ResponseCache.key(t, rq.getTarget(), drafts.test(exchange))
+				: null;
+	}
+
+	protected void notifyChanges(HttpRequest request, Long created) {
+		switch (request.getMethod()) {
+		case "GET", "HEAD", "OPTIONS":
+			return;
+		}
+		var p = request.getPath();
+		var t = collectionChanges.collection(p);
+		if (t == null || userLoginLogout.contains(p))
+			return;
+		var s = p.substring(p.indexOf('/', 5) != -1 ? p.indexOf('/', 5) : p.length()).split("/");
+		var i = s.length > 1 ? s[1] : "";
+		if (i.equals("bulk"))
+			return;
+		var id = !i.isEmpty() && i.chars().allMatch(Character::isDigit) ? Long.valueOf(i) : created;
+		collectionChanges.changed(t, id);
+	}
+
+	protected void invalidateSessionUsers(HttpExchange exchange) {
+		var rq = exchange.request();
+		var p = rq.getPath();
+		if (!p.startsWith("/api/users") || rq.getMethod().equals("GET") || rq.getMethod().equals("OPTIONS"))
+			return;
+		switch (p) {
+		case "/api/users/login":
+			break;
+		case "/api/users/logout":
+			if (exchange instanceof BackendHttpExchange x) {
+				var t = x.token();
+				if (t != null)
+					sessionUserCache.invalidateToken(t);
+			}
+			break;
+		default:
+			var i = p.startsWith("/api/users/") ? p.substring("/api/users/".length()).split("/", 2)[0] : "";
+			if (!i.isEmpty() && i.chars().allMatch(Character::isDigit))
+				sessionUserCache.invalidate(Long.valueOf(i));
+			else
+				sessionUserCache.invalidateAll();
+		}
 	}
 
 	protected boolean requireSessionEmail(HttpRequest request) {
@@ -116,11 +325,6 @@ public class BlankBackendInvocationHandlerFactory extends InvocationHandlerFacto
 
 	@Override
 	protected Converter converter(Class<? extends TypeResolver> type) {
-		return diFactory
-				.create(Converter.class,
-						type != DollarTypeResolver.class
-								? Collections.singletonMap("typeResolver",
-										type != null && type != NullTypeResolver.class ? diFactory.create(type) : null)
-								: null);
+		return converterRegistry.get(type);
 	}
 }
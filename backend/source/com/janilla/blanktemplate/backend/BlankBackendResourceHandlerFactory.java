@@ -24,17 +24,11 @@
  */
 package com.janilla.blanktemplate.backend;
 
-import java.nio.file.Path;
-import java.util.Properties;
-
 import com.janilla.backend.cms.CmsResourceHandlerFactory;
 
 public class BlankBackendResourceHandlerFactory extends CmsResourceHandlerFactory {
 
-	public BlankBackendResourceHandlerFactory(Properties configuration, String configurationKey) {
-		var d = configuration.getProperty(configurationKey + ".upload.directory");
-		if (d.startsWith("~"))
-			d = System.getProperty("user.home") + d.substring(1);
-		super(Path.of(d));
+	public BlankBackendResourceHandlerFactory(SettingsSource settings) {
+		super(settings.get().uploadDirectory());
 	}
 }
@@ -0,0 +1,412 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.janilla.backend.persistence.Persistence;
+import com.janilla.http.HttpRequest;
+import com.janilla.java.Converter;
+import com.janilla.json.Json;
+import com.janilla.web.NotFoundException;
+
+public class BulkOperations<E extends Record> {
+
+	protected final CollectionChanges collectionChanges;
+
+	protected final RecordComponent[] components;
+
+	protected final Constructor<E> constructor;
+
+	protected final Converter converter;
+
+	protected final GroupCommitter groupCommitter;
+
+	protected final Set<String> hidden;
+
+	protected final Persistence persistence;
+
+	protected final BiFunction<E, Map<String, Object>, E> prepare;
+
+	protected final SettingsSource settings;
+
+	protected final Class<E> type;
+
+	public BulkOperations(Class<E> type, Set<String> hidden, BiFunction<E, Map<String, Object>, E> prepare,
+			Converter converter, GroupCommitter groupCommitter, Persistence persistence,
+			CollectionChanges collectionChanges, SettingsSource settings) {
+		this.type = type;
+		this.hidden = hidden;
+		this.prepare = prepare;
+		this.converter = converter;
+		this.groupCommitter = groupCommitter;
+		this.persistence = persistence;
+		this.collectionChanges = collectionChanges;
+		this.settings = settings;
+		components = type.getRecordComponents();
+		try {
+			constructor = type.getDeclaredConstructor(
+					Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new));
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public E createDocument(HttpRequest request) throws IOException {
+		var e = created(map(item(request)), Instant.now());
+		var c = persistence.crud(type);
+		return commit(request, () -> c.create(e));
+	}
+
+	public E updateDocument(Long id, HttpRequest request) throws IOException {
+		var x = map(item(request));
+		x.put("id", id);
+		var u = updated(x);
+		var n = Instant.now();
+		var c = persistence.crud(type);
+		return commit(request, () -> {
+			var y = c.update(id, z -> with(merge(z, type.cast(u.entity()), u.keys()), Map.of("updatedAt", n)));
+			if (y == null)
+				throw new NotFoundException(type.getSimpleName() + " " + id);
+			return y;
+		});
+	}
+
+	public E deleteDocument(Long id, HttpRequest request) {
+		var c = persistence.crud(type);
+		return commit(request, () -> {
+			var y = c.delete(id);
+			if (y == null)
+				throw new NotFoundException(type.getSimpleName() + " " + id);
+			return y;
+		});
+	}
+
+	public List<Result> create(HttpRequest request) throws IOException {
+		var ii = items(request);
+		var ee = new ArrayList<Object>(ii.size());
+		var n = Instant.now();
+		for (var i = 0; i < ii.size(); i++) {
+			var m = ii.get(i);
+			ee.add(attempt(i, () -> created(map(m), n)));
+		}
+		var c = persistence.crud(type);
+		return perform("bulk-create", "created", ee, x -> id(c.create(type.cast(x))));
+	}
+
+	public List<Result> update(HttpRequest request) throws IOException {
+		var ii = items(request);
+		var uu = new ArrayList<Object>(ii.size());
+		var n = Instant.now();
+		for (var i = 0; i < ii.size(); i++) {
+			var m = ii.get(i);
+			uu.add(attempt(i, () -> updated(map(m))));
+		}
+		var c = persistence.crud(type);
+		return perform("bulk-update", "updated", uu, x -> {
+			var u = (Update) x;
+			if (c.update(u.id(), y -> with(merge(y, type.cast(u.entity()), u.keys()), Map.of("updatedAt", n))) == null)
+				throw new MalformedBulkException("Not found: " + u.id());
+			return u.id();
+		});
+	}
+
+	public List<Result> delete(HttpRequest request) throws IOException {
+		var ii = items(request);
+		var dd = new ArrayList<Object>(ii.size());
+		for (var i = 0; i < ii.size(); i++) {
+			var m = ii.get(i);
+			dd.add(attempt(i, () -> id(m instanceof Map<?, ?> x ? x.get("id") : m)));
+		}
+		var c = persistence.crud(type);
+		return perform("bulk-delete", "deleted", dd, x -> {
+			var id = (Long) x;
+			if (c.delete(id) == null)
+				throw new MalformedBulkException("Not found: " + id);
+			return id;
+		});
+	}
+
+	protected E created(Map<String, Object> map, Instant now) {
+		var vv = new HashMap<String, Object>();
+		vv.put("id", null);
+		vv.put("createdAt", now);
+		vv.put("updatedAt", now);
+		return with(prepare.apply(convert(map), map), vv);
+	}
+
+	protected Update updated(Map<String, Object> map) {
+		var id = id(map.get("id"));
+		var e = convert(map);
+		var p = prepare.apply(e, map);
+		var kk = new HashSet<>(map.keySet());
+		for (var c : components)
+			if (!Objects.equals(get(e, c), get(p, c)))
+				kk.add(c.getName());
+		kk.remove("id");
+		kk.remove("createdAt");
+		return new Update(id, p, kk);
+	}
+
+	protected E commit(HttpRequest request, Supplier<E> mutation) {
+		return groupCommitter.perform(() -> {
+			var e = new PersistenceEvent();
+			e.begin();
+			try {
+				return mutation.get();
+			} finally {
+				e.end(type, request);
+			}
+		});
+	}
+
+	protected List<Result> perform(String operation, String status, List<Object> items,
+			Function<Object, Long> function) {
+		var ss = new ArrayList<Supplier<Long>>(items.size());
+		for (var x : items)
+			if (!(x instanceof Result))
+				ss.add(() -> function.apply(x));
+		var e = new PersistenceEvent();
+		e.begin();
+		List<CompletableFuture<Long>> ff;
+		try {
+			ff = groupCommitter.performAll(ss);
+		} finally {
+			e.end(type.getSimpleName(), operation, ss.size());
+		}
+		var rr = new ArrayList<Result>(items.size());
+		for (int i = 0, j = 0; i < items.size(); i++)
+			rr.add(items.get(i) instanceof Result r ? r : result(i, status, ff.get(j++)));
+		return changed(rr);
+	}
+
+	protected List<Result> changed(List<Result> results) {
+		for (var x : results)
+			if (x.id() != null)
+				collectionChanges.changed(type, x.id());
+		return results;
+	}
+
+	protected Object item(HttpRequest request) throws IOException {
+		return parse(new String(body(request).readAllBytes(), StandardCharsets.UTF_8), 0);
+	}
+
+	protected List<Object> items(HttpRequest request) throws IOException {
+		var s = settings.get();
+		var in = body(request);
+		var t = request.getHeaderValue("content-type");
+		var m = s.bulkMaxItems();
+		List<Object> ii;
+		if (t != null && t.startsWith("application/x-ndjson")) {
+			ii = new ArrayList<>();
+			try (var r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+				var n = 0;
+				for (var l = r.readLine(); l != null; l = r.readLine()) {
+					n++;
+					if (!l.isBlank()) {
+						if (ii.size() == m)
+							throw new MalformedBulkException("Too many items (max " + m + ")");
+						ii.add(parse(l, n));
+					}
+				}
+			}
+		} else {
+			if (!(parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), 0) instanceof List<?> x))
+				throw new MalformedBulkException("Expected a JSON array or an NDJSON stream");
+			if (x.size() > m)
+				throw new MalformedBulkException("Too many items (max " + m + ")");
+			ii = new ArrayList<>(x);
+		}
+		return ii;
+	}
+
+	protected Object parse(String json, int line) {
+		try {
+			return Json.parse(json);
+		} catch (RuntimeException e) {
+			throw new MalformedBulkException((line > 0 ? "Malformed JSON on line " + line : "Malformed JSON")
+					+ (e.getMessage() != null ? ": " + e.getMessage() : ""));
+		}
+	}
+
+	protected InputStream body(HttpRequest request) {
+		var m = settings.get().bulkMaxRequestSize();
+		if (contentLength(request) > m)
+			throw new PayloadTooLargeException("Bulk request exceeds " + m + " bytes");
+		return new LimitedInputStream(Channels.newInputStream((ReadableByteChannel) request.getBody()), m);
+	}
+
+	protected long contentLength(HttpRequest request) {
+		var x = request.getHeaderValue("content-length");
+		try {
+			return x != null ? Long.parseLong(x.trim()) : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	protected Object attempt(int index, Supplier<Object> operation) {
+		try {
+			return operation.get();
+		} catch (RuntimeException e) {
+			return new Result(index, "error", null, e.getMessage());
+		}
+	}
+
+	protected Result result(int index, String status, CompletableFuture<Long> future) {
+		try {
+			return new Result(index, status, future.join(), null);
+		} catch (CompletionException e) {
+			return new Result(index, "error", null, e.getCause().getMessage());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected Map<String, Object> map(Object item) {
+		if (!(item instanceof Map<?, ?> m))
+			throw new MalformedBulkException("Expected a JSON object");
+		var x = new LinkedHashMap<>((Map<String, Object>) m);
+		x.keySet().removeAll(hidden);
+		return x;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected E convert(Map<String, Object> map) {
+		return (E) converter.convert(map, type);
+	}
+
+	protected Long id(Object object) {
+		var i = object instanceof Record r ? get(r, component("id")) : object;
+		if (!(i instanceof Number n))
+			throw new MalformedBulkException("Invalid id: " + i);
+		return n.longValue();
+	}
+
+	protected RecordComponent component(String name) {
+		for (var c : components)
+			if (c.getName().equals(name))
+				return c;
+		throw new IllegalArgumentException(name);
+	}
+
+	protected E merge(E entity, E changes, Set<String> keys) {
+		var aa = new Object[components.length];
+		for (var i = 0; i < components.length; i++)
+			aa[i] = get(keys.contains(components[i].getName()) ? changes : entity, components[i]);
+		return newInstance(aa);
+	}
+
+	protected E with(E entity, Map<String, Object> values) {
+		var aa = new Object[components.length];
+		for (var i = 0; i < components.length; i++) {
+			var n = components[i].getName();
+			aa[i] = values.containsKey(n) ? values.get(n) : get(entity, components[i]);
+		}
+		return newInstance(aa);
+	}
+
+	protected Object get(Record record, RecordComponent component) {
+		try {
+			return component.getAccessor().invoke(record);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	protected E newInstance(Object[] arguments) {
+		try {
+			return constructor.newInstance(arguments);
+		} catch (InvocationTargetException e) {
+			throw e.getCause() instanceof RuntimeException x ? x : new RuntimeException(e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	protected static class LimitedInputStream extends FilterInputStream {
+
+		protected final long limit;
+
+		protected long read;
+
+		protected LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.limit = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			var b = super.read();
+			if (b != -1)
+				count(1);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			var n = super.read(b, off, len);
+			if (n > 0)
+				count(n);
+			return n;
+		}
+
+		protected void count(int n) {
+			read += n;
+			if (read > limit)
+				throw new PayloadTooLargeException("Bulk request exceeds " + limit + " bytes");
+		}
+	}
+
+	public record Result(int index, String status, Long id, String error) {
+	}
+
+	protected record Update(Long id, Record entity, Set<String> keys) {
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.janilla.backend.cms.AbstractCollectionApi;
+import com.janilla.ioc.DiFactory;
+import com.janilla.web.Handle;
+
+public class CollectionChanges {
+
+	protected final Map<String, Class<?>> collections = new HashMap<>();
+
+	protected final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	public CollectionChanges(DiFactory diFactory) {
+		for (var x : diFactory.types()) {
+			if (!AbstractCollectionApi.class.isAssignableFrom(x) || Modifier.isAbstract(x.getModifiers()))
+				continue;
+			var h = x.getAnnotation(Handle.class);
+			var t = x.getGenericSuperclass() instanceof ParameterizedType y ? y.getActualTypeArguments()[1] : null;
+			if (h != null && t instanceof Class<?> c)
+				collections.put(h.path(), c);
+		}
+	}
+
+	public void add(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public Map<String, Class<?>> collections() {
+		return Collections.unmodifiableMap(collections);
+	}
+
+	public Class<?> collection(String path) {
+		var i = path.startsWith("/api/") ? path.indexOf('/', 5) : -1;
+		return collections.get(i != -1 ? path.substring(0, i) : path);
+	}
+
+	public void changed(Class<?> type, Long id) {
+		for (var x : listeners)
+			x.changed(type, id);
+	}
+
+	public interface Listener {
+
+		void changed(Class<?> type, Long id);
+	}
+}
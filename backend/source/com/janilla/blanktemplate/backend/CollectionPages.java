@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.janilla.cms.Document;
+import com.janilla.cms.DocumentStatus;
+import com.janilla.http.HttpExchange;
+
+public class CollectionPages {
+
+	protected static final Pattern WHERE = Pattern.compile("where\\[(\\w+)\\]\\[(\\w+)\\]");
+
+	protected final Predicate<HttpExchange> drafts;
+
+	protected final JsonWriters jsonWriters;
+
+	protected final SettingsSource settings;
+
+	protected final SortedIndexes sortedIndexes;
+
+	protected final TextIndexes textIndexes;
+
+	public CollectionPages(Predicate<HttpExchange> drafts, JsonWriters jsonWriters, SortedIndexes sortedIndexes,
+			TextIndexes textIndexes, SettingsSource settings) {
+		this.drafts = drafts;
+		this.jsonWriters = jsonWriters;
+		this.sortedIndexes = sortedIndexes;
+		this.textIndexes = textIndexes;
+		this.settings = settings;
+	}
+
+	public void write(Class<?> type, HttpExchange exchange) {
+		var pp = parameters(exchange.request().getTarget());
+		var cc = new ArrayList<SortedIndexes.Condition>();
+		for (var x : pp.entrySet()) {
+			var m = WHERE.matcher(x.getKey());
+			if (m.matches())
+				cc.add(new SortedIndexes.Condition(m.group(1), m.group(2), x.getValue()));
+		}
+		var q = new SortedIndexes.Query(cc, pp.get("sort"), pp.get("after"), limit(pp));
+
+		var o = new ResponseOutput(exchange);
+		try {
+			o.ascii("{\"docs\":[");
+			var r = sortedIndexes.scan(type, q, visible(exchange), element(o));
+			o.ascii("],\"next\":");
+			jsonWriters.write(r.next(), o);
+			if (Boolean.parseBoolean(pp.get("explain")) && admin(exchange)) {
+				var p = r.plan();
+				var m = new LinkedHashMap<String, Object>();
+				m.put("index", p.index());
+				m.put("equality", p.equality());
+				m.put("range", p.range());
+				m.put("order", p.order());
+				m.put("scanned", r.scanned());
+				o.ascii(",\"explain\":");
+				jsonWriters.write(m, o);
+			}
+			o.ascii('}');
+			o.close();
+		} finally {
+			o.end();
+		}
+	}
+
+	public boolean search(Class<?> type, HttpExchange exchange) {
+		if (!textIndexes.supports(type))
+			return false;
+		var pp = parameters(exchange.request().getTarget());
+		var s = pp.get("search");
+		if (s == null || TextIndexes.tokens(s).isEmpty())
+			return false;
+
+		var o = new ResponseOutput(exchange);
+		try {
+			o.ascii('[');
+			textIndexes.search(type, s, limit(pp), visible(exchange), element(o));
+			o.ascii(']');
+			o.close();
+		} finally {
+			o.end();
+		}
+		return true;
+	}
+
+	public boolean explain(HttpExchange exchange) {
+		return Boolean.parseBoolean(parameters(exchange.request().getTarget()).get("explain"));
+	}
+
+	protected boolean admin(HttpExchange exchange) {
+		return exchange instanceof BackendHttpExchange x && x.admin();
+	}
+
+	protected Predicate<Object> visible(HttpExchange exchange) {
+		var d = drafts.test(exchange);
+		return x -> d || !(x instanceof Document<?> y) || y.documentStatus() != DocumentStatus.DRAFT;
+	}
+
+	protected Consumer<Object> element(ResponseOutput output) {
+		var f = new boolean[] { true };
+		return x -> {
+			if (f[0])
+				f[0] = false;
+			else
+				output.ascii(',');
+			jsonWriters.write(x, output);
+			output.flushIfFull();
+		};
+	}
+
+	protected int limit(Map<String, String> parameters) {
+		var s = parameters.get("limit");
+		try {
+			var l = s != null ? Integer.parseInt(s) : 10;
+			return Math.min(l > 0 ? l : 10, settings.get().cursorMaxLimit());
+		} catch (NumberFormatException e) {
+			throw new MalformedQueryException("Invalid limit: " + s);
+		}
+	}
+
+	protected Map<String, String> parameters(String target) {
+		var i = target.indexOf('?');
+		var m = new LinkedHashMap<String, String>();
+		if (i != -1)
+			for (var x : target.substring(i + 1).split("&")) {
+				if (x.isEmpty())
+					continue;
+				var j = x.indexOf('=');
+				var k = URLDecoder.decode(j != -1 ? x.substring(0, j) : x, StandardCharsets.UTF_8);
+				m.put(k, j != -1 ? URLDecoder.decode(x.substring(j + 1), StandardCharsets.UTF_8) : "true");
+			}
+		return m;
+	}
+}
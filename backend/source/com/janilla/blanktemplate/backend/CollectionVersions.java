@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CollectionVersions implements CollectionChanges.Listener {
+
+	protected static final int MAX_DOCUMENTS = 16384;
+
+	protected final Map<Class<?>, Map<Long, Long>> documents = new ConcurrentHashMap<>();
+
+	protected final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	protected final Map<Class<?>, Long> floors = new ConcurrentHashMap<>();
+
+	protected final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+	public CollectionVersions(CollectionChanges collectionChanges) {
+		collectionChanges.add(this);
+	}
+
+	@Override
+	public void changed(Class<?> type, Long id) {
+		var v = versions.computeIfAbsent(type, _ -> new AtomicLong()).incrementAndGet();
+		if (id == null) {
+			floors.merge(type, v, Math::max);
+			return;
+		}
+		var dd = documents.computeIfAbsent(type, _ -> new ConcurrentHashMap<>());
+		synchronized (dd) {
+			dd.merge(id, v, Math::max);
+			if (dd.size() > MAX_DOCUMENTS) {
+				floors.merge(type, version(type), Math::max);
+				dd.clear();
+			}
+		}
+	}
+
+	public String epoch() {
+		return epoch;
+	}
+
+	public long version(Class<?> type) {
+		var v = versions.get(type);
+		return v != null ? v.get() : 0;
+	}
+
+	public long version(Class<?> type, Long id) {
+		var dd = documents.get(type);
+		var v = dd != null ? dd.get(id) : null;
+		return Math.max(v != null ? v : 0, floors.getOrDefault(type, 0L));
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.janilla.ioc.DiFactory;
+import com.janilla.java.Converter;
+import com.janilla.java.DollarTypeResolver;
+import com.janilla.java.NullTypeResolver;
+import com.janilla.java.TypeResolver;
+
+public class ConverterRegistry {
+
+	protected final Map<Class<? extends TypeResolver>, Converter> converters = new ConcurrentHashMap<>();
+
+	protected final DiFactory diFactory;
+
+	public ConverterRegistry(DiFactory diFactory) {
+		this.diFactory = diFactory;
+	}
+
+	public Converter get(Class<? extends TypeResolver> type) {
+		return converters.computeIfAbsent(type != null ? type : NullTypeResolver.class, this::create);
+	}
+
+	protected Converter create(Class<? extends TypeResolver> type) {
+		return diFactory.create(Converter.class,
+				type != DollarTypeResolver.class
+						? Collections.singletonMap("typeResolver",
+								type != NullTypeResolver.class ? diFactory.create(type) : null)
+						: null);
+	}
+}
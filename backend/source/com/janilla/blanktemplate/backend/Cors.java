@@ -24,7 +24,6 @@
  */
 package com.janilla.blanktemplate.backend;
 
-import java.util.Properties;
 import java.util.stream.Collectors;
 
 import com.janilla.http.HttpRequest;
@@ -34,28 +33,24 @@ import com.janilla.web.InvocationResolver;
 
 public class Cors {
 
-	protected final Properties configuration;
-
-	protected final String configurationKey;
-
 	protected final InvocationResolver invocationResolver;
 
-	public Cors(Properties configuration, String configurationKey, InvocationResolver invocationResolver) {
-		this.configuration = configuration;
-		this.configurationKey = configurationKey;
+	protected final SettingsSource settings;
+
+	public Cors(InvocationResolver invocationResolver, SettingsSource settings) {
 		this.invocationResolver = invocationResolver;
+		this.settings = settings;
 	}
 
 	@Handle(method = "OPTIONS", path = "/api/(.*)")
 	public void allow(HttpRequest request, HttpResponse response) {
-		var o = configuration.getProperty(configurationKey + ".api.cors.origin");
+		var s = settings.get();
 		var m = invocationResolver.groups(request.getPath()).flatMap(x -> x.methods().keySet().stream()).toList();
-		var h = configuration.getProperty(configurationKey + ".api.cors.headers");
 
 		response.setStatus(204);
-		response.setHeaderValue("access-control-allow-origin", o);
+		response.setHeaderValue("access-control-allow-origin", s.corsOrigin());
 		response.setHeaderValue("access-control-allow-methods",
 				m.contains(null) ? "*" : m.stream().collect(Collectors.joining(", ")));
-		response.setHeaderValue("access-control-allow-headers", h);
+		response.setHeaderValue("access-control-allow-headers", s.corsHeaders());
 	}
 }
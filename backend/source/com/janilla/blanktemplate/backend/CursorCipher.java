@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+public class CursorCipher {
+
+	protected static final int IV_LENGTH = 12;
+
+	protected static final Random RANDOM = new SecureRandom();
+
+	protected static final int TAG_LENGTH = 128;
+
+	protected final SecretKeySpec key;
+
+	public CursorCipher(SettingsSource settings) {
+		var k = settings.get().jwtKey();
+		try {
+			key = new SecretKeySpec(MessageDigest.getInstance("SHA-256")
+					.digest(("cursor:" + (k != null ? k : "")).getBytes(StandardCharsets.UTF_8)), "AES");
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public String seal(byte[] bytes) {
+		var bb = new byte[IV_LENGTH];
+		RANDOM.nextBytes(bb);
+		try {
+			var c = Cipher.getInstance("AES/GCM/NoPadding");
+			c.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, bb));
+			var e = c.doFinal(bytes);
+			bb = Arrays.copyOf(bb, IV_LENGTH + e.length);
+			System.arraycopy(e, 0, bb, IV_LENGTH, e.length);
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bb);
+	}
+
+	public byte[] open(String string) {
+		try {
+			var bb = Base64.getUrlDecoder().decode(string);
+			if (bb.length < IV_LENGTH)
+				return null;
+			var c = Cipher.getInstance("AES/GCM/NoPadding");
+			c.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, bb, 0, IV_LENGTH));
+			return c.doFinal(bb, IV_LENGTH, bb.length - IV_LENGTH);
+		} catch (GeneralSecurityException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
@@ -25,42 +25,148 @@
 package com.janilla.blanktemplate.backend;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Properties;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.janilla.backend.cms.Cms;
 import com.janilla.http.HttpRequest;
 import com.janilla.web.Handle;
 
 @Handle(path = "/api/files")
 public class FileApi {
 
-	protected final Properties configuration;
+	protected final ImageDerivatives imageDerivatives;
 
-	protected final String configurationKey;
+	protected final SettingsSource settings;
 
-	public FileApi(Properties configuration, String configurationKey) {
-		this.configuration = configuration;
-		this.configurationKey = configurationKey;
+	protected final AtomicLong uploadBytes = new AtomicLong();
+
+	protected final Semaphore uploads;
+
+	public FileApi(ImageDerivatives imageDerivatives, SettingsSource settings) {
+		this.imageDerivatives = imageDerivatives;
+		this.settings = settings;
+		uploads = new Semaphore(settings.get().uploadMaxConcurrent());
 	}
 
 	@Handle(method = "POST", path = "upload")
 	public void create(HttpRequest request) throws IOException {
-		var ff = Cms.files(request);
-		for (var x : ff.entrySet()) {
-			Path d;
-			{
-				var y = configuration.getProperty(configurationKey + ".upload.directory");
-				if (y.startsWith("~"))
-					y = System.getProperty("user.home") + y.substring(1);
-				d = Path.of(y);
+		var s = settings.get();
+		var b = MultipartReader.boundary(request.getHeaderValue("content-type"));
+		if (b == null)
+			throw new MalformedMultipartException("Missing multipart boundary");
+		var l = contentLength(request);
+		if (l > s.uploadMaxRequestSize())
+			throw new PayloadTooLargeException("Upload exceeds " + s.uploadMaxRequestSize() + " bytes");
+
+		if (!uploads.tryAcquire())
+			throw new ServiceUnavailableException("Too many concurrent uploads, please retry later");
+		var c = new ReservingChannel((ReadableByteChannel) request.getBody());
+		try {
+			if (l != -1)
+				c.reserve(l);
+			var r = new MultipartReader(c, b, 64 * 1024, s.uploadMaxRequestSize());
+			var d = s.uploadDirectory();
+			Files.createDirectories(d);
+			for (var hh = r.nextPart(); hh != null; hh = r.nextPart()) {
+				var f = fileName(hh.get("content-disposition"));
+				if (f != null)
+					write(r, d, f);
+			}
+		} finally {
+			uploadBytes.addAndGet(-c.reserved);
+			uploads.release();
+		}
+	}
+
+	protected long contentLength(HttpRequest request) {
+		var x = request.getHeaderValue("content-length");
+		if (x == null)
+			return -1;
+		long l;
+		try {
+			l = Long.parseLong(x.trim());
+		} catch (NumberFormatException e) {
+			l = -1;
+		}
+		if (l < 0)
+			throw new MalformedMultipartException("Invalid Content-Length: " + x);
+		return l;
+	}
+
+	protected String fileName(String contentDisposition) {
+		if (contentDisposition == null)
+			return null;
+		for (var x : contentDisposition.split(";")) {
+			var y = x.trim();
+			if (y.startsWith("filename=")) {
+				var n = y.substring("filename=".length());
+				if (n.length() >= 2 && n.startsWith("\"") && n.endsWith("\""))
+					n = n.substring(1, n.length() - 1);
+				n = n.substring(Math.max(n.lastIndexOf('/'), n.lastIndexOf('\\')) + 1);
+				return n.isEmpty() || n.equals(".") || n.equals("..") ? null : n;
+			}
+		}
+		return null;
+	}
+
+	protected void write(MultipartReader reader, Path directory, String name) throws IOException {
+		var t = Files.createTempFile(directory, ".upload-", ".tmp");
+		try {
+			try (var c = FileChannel.open(t, StandardOpenOption.WRITE)) {
+				reader.transferTo(c);
+			}
+			Files.move(t, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(t);
+		}
+		imageDerivatives.generate(directory.resolve(name));
+	}
+
+	protected class ReservingChannel implements ReadableByteChannel {
+
+		protected final ReadableByteChannel channel;
+
+		protected long read;
+
+		protected long reserved;
+
+		protected ReservingChannel(ReadableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			var n = channel.read(dst);
+			if (n > 0) {
+				read += n;
+				if (read > reserved)
+					reserve(read - reserved);
 			}
-			if (!Files.exists(d))
-				Files.createDirectories(d);
-			var f = d.resolve(x.getKey());
-			var bb = x.getValue();
-			Files.write(f, bb);
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return channel.isOpen();
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+
+		protected void reserve(long bytes) {
+			reserved += bytes;
+			if (uploadBytes.addAndGet(bytes) > settings.get().uploadMaxTotalSize())
+				throw new ServiceUnavailableException("Too many bytes being uploaded, please retry later");
 		}
 	}
 }
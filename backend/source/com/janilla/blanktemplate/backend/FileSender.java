@@ -0,0 +1,257 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.janilla.http.HttpRequest;
+import com.janilla.http.HttpResponse;
+import com.janilla.web.NotFoundException;
+
+public class FileSender {
+
+	protected static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+	protected static final int MAX_RANGES = 16;
+
+	public static String entityTag(BasicFileAttributes attributes) {
+		return "\"" + Long.toHexString(attributes.size()) + "-"
+				+ Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+	}
+
+	public static void send(Path file, HttpRequest request, HttpResponse response) throws IOException {
+		BasicFileAttributes a;
+		try {
+			a = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			a = null;
+		}
+		if (a == null || !a.isRegularFile())
+			throw new NotFoundException(file.getFileName().toString());
+
+		var z = a.size();
+		var m = a.lastModifiedTime().toInstant().truncatedTo(ChronoUnit.SECONDS);
+		var t = entityTag(a);
+		response.setHeaderValue("accept-ranges", "bytes");
+		response.setHeaderValue("etag", t);
+		response.setHeaderValue("last-modified", HTTP_DATE.format(m));
+
+		if (notModified(request, t, m)) {
+			response.setStatus(304);
+			return;
+		}
+
+		var ct = contentType(file);
+		var rr = ifRange(request, t, m) ? ranges(request.getHeaderValue("range"), z) : null;
+		try (var c = FileChannel.open(file)) {
+			var b = (WritableByteChannel) response.getBody();
+			if (rr == null) {
+				response.setStatus(200);
+				response.setHeaderValue("content-type", ct);
+				response.setHeaderValue("content-length", String.valueOf(z));
+				transfer(c, 0, z, b);
+			} else if (rr.isEmpty()) {
+				response.setStatus(416);
+				response.setHeaderValue("content-range", "bytes */" + z);
+				response.setHeaderValue("content-length", "0");
+			} else if (rr.size() == 1) {
+				var r = rr.getFirst();
+				response.setStatus(206);
+				response.setHeaderValue("content-type", ct);
+				response.setHeaderValue("content-range", r.format(z));
+				response.setHeaderValue("content-length", String.valueOf(r.length()));
+				transfer(c, r.start(), r.length(), b);
+			} else {
+				var s = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+				var hh = rr.stream().map(x -> ("\r\n--" + s + "\r\ncontent-type: " + ct + "\r\ncontent-range: "
+						+ x.format(z) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII)).toList();
+				var e = ("\r\n--" + s + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+				var l = e.length + hh.stream().mapToLong(x -> x.length).sum()
+						+ rr.stream().mapToLong(Range::length).sum();
+				response.setStatus(206);
+				response.setHeaderValue("content-type", "multipart/byteranges; boundary=" + s);
+				response.setHeaderValue("content-length", String.valueOf(l));
+				for (var i = 0; i < rr.size(); i++) {
+					write(ByteBuffer.wrap(hh.get(i)), b);
+					transfer(c, rr.get(i).start(), rr.get(i).length(), b);
+				}
+				write(ByteBuffer.wrap(e), b);
+			}
+		}
+	}
+
+	protected static String contentType(Path file) throws IOException {
+		var n = file.getFileName().toString();
+		var i = n.lastIndexOf('.');
+		var t = switch (i != -1 ? n.substring(i + 1).toLowerCase() : "") {
+		case "avif" -> "image/avif";
+		case "gif" -> "image/gif";
+		case "jpeg", "jpg" -> "image/jpeg";
+		case "mov" -> "video/quicktime";
+		case "mp4" -> "video/mp4";
+		case "pdf" -> "application/pdf";
+		case "png" -> "image/png";
+		case "svg" -> "image/svg+xml";
+		case "webm" -> "video/webm";
+		case "webp" -> "image/webp";
+		default -> Files.probeContentType(file);
+		};
+		return t != null ? t : "application/octet-stream";
+	}
+
+	protected static boolean notModified(HttpRequest request, String etag, Instant lastModified) {
+		var n = request.getHeaderValue("if-none-match");
+		if (n != null)
+			return matches(n, etag);
+		var s = date(request.getHeaderValue("if-modified-since"));
+		return s != null && !lastModified.isAfter(s);
+	}
+
+	protected static boolean ifRange(HttpRequest request, String etag, Instant lastModified) {
+		var x = request.getHeaderValue("if-range");
+		if (x == null)
+			return true;
+		if (x.startsWith("\""))
+			return x.equals(etag);
+		var d = date(x);
+		return d != null && d.equals(lastModified);
+	}
+
+	protected static boolean matches(String ifNoneMatch, String etag) {
+		for (var x : ifNoneMatch.split(",")) {
+			var y = x.trim();
+			if (y.equals("*") || (y.startsWith("W/") ? y.substring(2) : y).equals(etag))
+				return true;
+		}
+		return false;
+	}
+
+	protected static Instant date(String string) {
+		try {
+			return string != null ? Instant.from(HTTP_DATE.parse(string)) : null;
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	protected static List<Range> ranges(String header, long size) {
+		if (header == null || !header.startsWith("bytes="))
+			return null;
+		var ss = header.substring("bytes=".length()).split(",");
+		if (ss.length > MAX_RANGES)
+			return null;
+		var rr = new ArrayList<Range>();
+		for (var x : ss) {
+			var y = x.trim();
+			var i = y.indexOf('-');
+			if (i == -1)
+				return null;
+			var s1 = y.substring(0, i);
+			var s2 = y.substring(i + 1);
+			if (s1.isEmpty() ? !digits(s2) : !digits(s1) || !s2.isEmpty() && !digits(s2))
+				return null;
+			long a, b;
+			try {
+				if (s1.isEmpty()) {
+					var l = Long.parseLong(s2);
+					a = Math.max(0, size - l);
+					b = l > 0 ? size - 1 : -1;
+				} else {
+					a = Long.parseLong(s1);
+					b = s2.isEmpty() ? Long.MAX_VALUE : Long.parseLong(s2);
+					if (b < a)
+						return null;
+				}
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			b = Math.min(b, size - 1);
+			if (a <= b)
+				rr.add(new Range(a, b));
+		}
+		return merge(rr);
+	}
+
+	protected static boolean digits(String string) {
+		return !string.isEmpty() && string.chars().allMatch(x -> x >= '0' && x <= '9');
+	}
+
+	protected static List<Range> merge(List<Range> ranges) {
+		if (ranges.size() < 2)
+			return ranges;
+		ranges.sort(Comparator.comparingLong(Range::start));
+		var rr = new ArrayList<Range>(ranges.size());
+		var r = ranges.getFirst();
+		for (var x : ranges.subList(1, ranges.size()))
+			if (x.start() <= r.end() + 1)
+				r = new Range(r.start(), Math.max(r.end(), x.end()));
+			else {
+				rr.add(r);
+				r = x;
+			}
+		rr.add(r);
+		return rr;
+	}
+
+	protected static void transfer(FileChannel channel, long position, long length, WritableByteChannel target)
+			throws IOException {
+		for (var n = 0L; n < length;)
+			n += channel.transferTo(position + n, length - n, target);
+	}
+
+	protected static void write(ByteBuffer buffer, WritableByteChannel target) throws IOException {
+		while (buffer.hasRemaining())
+			target.write(buffer);
+	}
+
+	protected record Range(long start, long end) {
+
+		public long length() {
+			return end - start + 1;
+		}
+
+		public String format(long size) {
+			return "bytes " + start + "-" + end + "/" + size;
+		}
+	}
+}
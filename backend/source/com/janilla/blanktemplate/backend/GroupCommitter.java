@@ -0,0 +1,293 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.lang.System.Logger.Level;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.janilla.backend.persistence.Persistence;
+
+public class GroupCommitter {
+
+	protected static final System.Logger LOGGER = System.getLogger(GroupCommitter.class.getName());
+
+	protected static Operation<?> failed(Throwable exception) {
+		for (var x = exception; x != null; x = x.getCause())
+			if (x instanceof Rollback r)
+				return r.operation;
+		return null;
+	}
+
+	protected final Deque<Operation<?>> bulkQueue = new ArrayDeque<>();
+
+	protected final ReentrantLock lock = new ReentrantLock();
+
+	protected final Condition pending = lock.newCondition();
+
+	protected final Persistence persistence;
+
+	protected final Deque<Operation<?>> queue = new ArrayDeque<>();
+
+	protected final SettingsSource settings;
+
+	protected final Thread thread;
+
+	public GroupCommitter(SettingsSource settings, Persistence persistence) {
+		this.settings = settings;
+		this.persistence = persistence;
+		thread = Thread.ofPlatform().name("group-committer").daemon().start(this::run);
+	}
+
+	public <T> T perform(Supplier<T> operation) {
+		if (Thread.currentThread() == thread)
+			return operation.get();
+		try {
+			return submit(List.of(operation), false).getFirst().join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException x ? x : new RuntimeException(e.getCause());
+		}
+	}
+
+	public <T> List<CompletableFuture<T>> performAll(List<? extends Supplier<T>> operations) {
+		return submit(operations, true);
+	}
+
+	protected <T> List<CompletableFuture<T>> submit(List<? extends Supplier<T>> operations, boolean bulk) {
+		var oo = new ArrayList<Operation<T>>(operations.size());
+		for (var x : operations)
+			oo.add(new Operation<>(x));
+		if (Thread.currentThread() == thread)
+			for (var o : oo) {
+				o.run();
+				o.complete();
+			}
+		else {
+			lock.lock();
+			try {
+				(bulk ? bulkQueue : queue).addAll(oo);
+				pending.signal();
+			} finally {
+				lock.unlock();
+			}
+			var t = settings.get().groupCommitTimeout().toNanos();
+			try {
+				for (var o : oo)
+					await(o, t);
+			} catch (InterruptedException e) {
+				for (var o : oo)
+					if (o.claim())
+						o.future.completeExceptionally(e);
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		return oo.stream().map(x -> x.future).toList();
+	}
+
+	protected void await(Operation<?> operation, long timeout) throws InterruptedException {
+		try {
+			try {
+				operation.future.get(timeout, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				if (operation.claim())
+					operation.future.completeExceptionally(
+							new ServiceUnavailableException("Too many pending writes, please retry later"));
+				else
+					operation.future.get();
+			}
+		} catch (ExecutionException e) {
+		}
+	}
+
+	protected void run() {
+		var oo = new ArrayList<Operation<?>>();
+		for (;;) {
+			try {
+				batch(oo);
+			} catch (InterruptedException e) {
+				break;
+			}
+			try {
+				if (!oo.isEmpty())
+					commit(oo);
+			} catch (Throwable e) {
+				LOGGER.log(Level.ERROR, "Group commit failed", e);
+				for (var o : oo)
+					o.future.completeExceptionally(e);
+			}
+			oo.clear();
+		}
+	}
+
+	protected void batch(List<Operation<?>> operations) throws InterruptedException {
+		lock.lock();
+		try {
+			while (queue.isEmpty() && bulkQueue.isEmpty())
+				pending.await();
+			var s = settings.get();
+			var n = s.groupCommitBatchSize();
+			var b = Math.min(s.groupCommitBulkBatchSize(), n);
+			var d = System.nanoTime() + s.groupCommitMaxDelay().toNanos();
+			take(bulkQueue, operations, b);
+			for (;;) {
+				take(queue, operations, n);
+				var r = d - System.nanoTime();
+				if (operations.size() >= n || !bulkQueue.isEmpty() || r <= 0)
+					break;
+				pending.awaitNanos(r);
+			}
+			take(bulkQueue, operations, n);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	protected void take(Deque<Operation<?>> queue, List<Operation<?>> operations, int size) {
+		while (operations.size() < size && !queue.isEmpty()) {
+			var o = queue.poll();
+			if (o.claim())
+				operations.add(o);
+		}
+	}
+
+	protected void commit(List<Operation<?>> operations) {
+		var e = new PersistenceEvent();
+		e.begin();
+		try {
+			var oo = new ArrayList<>(operations);
+			while (!oo.isEmpty()) {
+				var x = transaction(oo);
+				if (x == null) {
+					for (var o : oo)
+						o.complete();
+					break;
+				}
+				var o = failed(x);
+				if (o != null) {
+					o.complete();
+					oo.remove(o);
+					continue;
+				}
+				for (var y : oo) {
+					var z = oo.size() != 1 ? transaction(List.of(y)) : x;
+					if (z == null || failed(z) != null)
+						y.complete();
+					else
+						y.future.completeExceptionally(z);
+				}
+				break;
+			}
+		} finally {
+			e.end(null, "commit", operations.size());
+		}
+	}
+
+	protected RuntimeException transaction(List<Operation<?>> operations) {
+		try {
+			atomically(() -> {
+				for (var o : operations) {
+					o.run();
+					if (o.exception != null)
+						throw new Rollback(o);
+				}
+			});
+			return null;
+		} catch (RuntimeException e) {
+			return e;
+		}
+	}
+
+	protected void atomically(Runnable operation) {
+		persistence.database().perform(() -> {
+			operation.run();
+			return null;
+		}, true);
+	}
+
+	protected static class Operation<T> {
+
+		protected final BlankBackend backend = BlankBackend.INSTANCE.isBound() ? BlankBackend.INSTANCE.get() : null;
+
+		protected final AtomicBoolean claimed = new AtomicBoolean();
+
+		protected final CompletableFuture<T> future = new CompletableFuture<>();
+
+		protected final Supplier<T> supplier;
+
+		protected RuntimeException exception;
+
+		protected T result;
+
+		protected Operation(Supplier<T> supplier) {
+			this.supplier = supplier;
+		}
+
+		protected boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		protected void run() {
+			exception = null;
+			result = null;
+			try {
+				result = backend != null ? ScopedValue.where(BlankBackend.INSTANCE, backend).call(supplier::get)
+						: supplier.get();
+			} catch (RuntimeException e) {
+				exception = e;
+			}
+		}
+
+		protected void complete() {
+			if (exception != null)
+				future.completeExceptionally(exception);
+			else
+				future.complete(result);
+		}
+	}
+
+	protected static class Rollback extends RuntimeException {
+
+		private static final long serialVersionUID = -7002463394584404170L;
+
+		protected final Operation<?> operation;
+
+		protected Rollback(Operation<?> operation) {
+			super(null, null, false, false);
+			this.operation = operation;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+public class ImageDerivatives {
+
+	protected static final System.Logger LOGGER = System.getLogger(ImageDerivatives.class.getName());
+
+	protected static final Set<String> FORMATS = Stream.of("bmp", "gif", "jpeg", "png")
+			.filter(x -> ImageIO.getImageWritersByFormatName(x).hasNext()).collect(Collectors.toUnmodifiableSet());
+
+	public static String format(String fileName) {
+		var i = fileName.lastIndexOf('.');
+		var f = switch (i != -1 ? fileName.substring(i + 1).toLowerCase() : "") {
+		case "bmp" -> "bmp";
+		case "gif" -> "gif";
+		case "jpeg", "jpg" -> "jpeg";
+		case "png" -> "png";
+		default -> null;
+		};
+		return f != null && FORMATS.contains(f) ? f : null;
+	}
+
+	public static String name(String fileName, String size) {
+		var i = fileName.lastIndexOf('.');
+		return i != -1 ? fileName.substring(0, i) + "-" + size + fileName.substring(i) : fileName + "-" + size;
+	}
+
+	protected final SettingsSource settings;
+
+	public ImageDerivatives(SettingsSource settings) {
+		this.settings = settings;
+	}
+
+	public void generate(Path file) {
+		var n = file.getFileName().toString();
+		var f = format(n);
+		var s = settings.get();
+		if (f == null || s.imageSizes().isEmpty())
+			return;
+		var i = read(file, s.imageMaxPixels());
+		var w = i != null ? i.getWidth() : 0;
+		try (var x = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (var e : s.imageSizes().entrySet()) {
+				var d = file.resolveSibling(name(n, e.getKey()));
+				if (e.getValue() < w)
+					x.execute(() -> {
+						try {
+							write(scale(i, e.getValue(), f.equals("jpeg") || f.equals("bmp")), f, d);
+						} catch (IOException | RuntimeException e2) {
+							LOGGER.log(Level.WARNING, "Cannot write " + d, e2);
+						}
+					});
+				else
+					try {
+						Files.deleteIfExists(d);
+					} catch (IOException e2) {
+						LOGGER.log(Level.WARNING, "Cannot delete " + d, e2);
+					}
+			}
+		}
+	}
+
+	protected BufferedImage read(Path file, long maxPixels) {
+		try (var s = ImageIO.createImageInputStream(file.toFile())) {
+			var rr = s != null ? ImageIO.getImageReaders(s) : null;
+			if (rr == null || !rr.hasNext())
+				return null;
+			var r = rr.next();
+			try {
+				r.setInput(s, true, true);
+				var w = r.getWidth(0);
+				var h = r.getHeight(0);
+				if ((long) w * h > maxPixels) {
+					LOGGER.log(Level.WARNING, "Skipping derivatives of {0}: {1}x{2} exceeds {3} pixels", file, w, h,
+							maxPixels);
+					return null;
+				}
+				return r.read(0);
+			} finally {
+				r.dispose();
+			}
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Cannot decode " + file + ", skipping derivatives", e);
+			return null;
+		}
+	}
+
+	protected BufferedImage scale(BufferedImage image, int width, boolean opaque) {
+		var h = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+		var i = new BufferedImage(width, h, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		var g = i.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(image, 0, 0, width, h, null);
+		} finally {
+			g.dispose();
+		}
+		return i;
+	}
+
+	protected void write(BufferedImage image, String format, Path file) throws IOException {
+		var t = Files.createTempFile(file.getParent(), ".derivative-", ".tmp");
+		try {
+			ImageIO.write(image, format, t.toFile());
+			Files.move(t, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(t);
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.janilla.backend.cms.User;
+import com.janilla.ioc.DiFactory;
+import com.janilla.json.Json;
+import com.janilla.json.ReflectionJsonIterator;
+import com.janilla.persistence.Store;
+
+public class JsonWriters {
+
+	protected static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	protected final DiFactory diFactory;
+
+	protected final boolean includeType;
+
+	protected final SettingsSource settings;
+
+	protected final Map<Class<?>, RecordWriter> writers = new ConcurrentHashMap<>();
+
+	public JsonWriters(DiFactory diFactory, boolean includeType, SettingsSource settings, List<Class<?>> storables) {
+		this.diFactory = diFactory;
+		this.includeType = includeType;
+		this.settings = settings;
+		for (var x : storables)
+			if (x.isRecord())
+				writers.put(x, recordWriter(x));
+	}
+
+	public boolean supports(Object value) {
+		return switch (value) {
+		case null -> false;
+		case List<?> x -> x.stream().allMatch(y -> y != null && y.getClass().isAnnotationPresent(Store.class)
+				&& writers.containsKey(y.getClass()));
+		default -> value.getClass().isAnnotationPresent(Store.class) && writers.containsKey(value.getClass());
+		};
+	}
+
+	public byte[] write(Object value) {
+		var o = new Output(1024);
+		write(value, o, settings.get());
+		return o.toByteArray();
+	}
+
+	public void write(Object value, Output output) {
+		write(value, output, settings.get());
+	}
+
+	public void write(Object value, Output output, Settings settings) {
+		switch (value) {
+		case null -> output.ascii("null");
+		case String x -> output.string(x);
+		case Boolean x -> output.ascii(x ? "true" : "false");
+		case Integer _, Long _, Short _, Byte _ -> output.ascii(value.toString());
+		case Number x -> {
+			var d = x.doubleValue();
+			output.ascii(Double.isFinite(d) ? x.toString() : "null");
+		}
+		case Enum<?> x -> output.string(x.name());
+		case TemporalAccessor _, UUID _ -> output.string(value.toString());
+		case Collection<?> x -> {
+			output.ascii('[');
+			var f = true;
+			for (var y : x) {
+				if (f)
+					f = false;
+				else
+					output.ascii(',');
+				write(y, output, settings);
+			}
+			output.ascii(']');
+		}
+		case Map<?, ?> x -> {
+			output.ascii('{');
+			var f = true;
+			for (var y : x.entrySet()) {
+				if (f)
+					f = false;
+				else
+					output.ascii(',');
+				output.string(String.valueOf(y.getKey()));
+				output.ascii(':');
+				write(y.getValue(), output, settings);
+			}
+			output.ascii('}');
+		}
+		case Record x -> {
+			var w = writers.computeIfAbsent(x.getClass(), this::recordWriter);
+			if (w != null)
+				w.write(x, output, settings);
+			else
+				output.ascii(reflect(x));
+		}
+		default -> output.ascii(reflect(value));
+		}
+	}
+
+	protected RecordWriter recordWriter(Class<?> type) {
+		var l = MethodHandles.lookup();
+		var pp = new ArrayList<Property>();
+		try {
+			var cc = type.getRecordComponents();
+			for (var x : cc)
+				if (include(type, x))
+					pp.add(new Property(x.getName(), getter(l.unreflect(x.getAccessor()))));
+			var nn = Arrays.stream(cc).map(RecordComponent::getName).toList();
+			for (var x : type.getDeclaredMethods())
+				if (Modifier.isPublic(x.getModifiers()) && !Modifier.isStatic(x.getModifiers())
+						&& x.getParameterCount() == 0 && x.getReturnType() != void.class && !x.isSynthetic()
+						&& !nn.contains(x.getName()) && !x.getName().equals("hashCode")
+						&& !x.getName().equals("toString"))
+					pp.add(new Property(x.getName(), derived(type, x, l)));
+		} catch (IllegalAccessException e) {
+			return null;
+		}
+		return new RecordWriter(includeType ? type.getSimpleName() : null, pp);
+	}
+
+	protected boolean include(Class<?> type, RecordComponent component) {
+		return !User.class.isAssignableFrom(type) || !UserImpl.HIDDEN.contains(component.getName());
+	}
+
+	protected Getter derived(Class<?> type, Method method, MethodHandles.Lookup lookup) throws IllegalAccessException {
+		if (type == Media.class)
+			switch (method.getName()) {
+			case "uri":
+				return (x, s) -> Media.uri(s.apiUrl(), ((Media) x).file());
+			case "sizes":
+				return (x, s) -> Media.sizes(s.apiUrl(), s.imageSizes().keySet(), ((Media) x).file());
+			}
+		return getter(lookup.unreflect(method));
+	}
+
+	protected Getter getter(MethodHandle handle) {
+		var h = handle.asType(MethodType.methodType(Object.class, Object.class));
+		return (x, _) -> h.invokeExact(x);
+	}
+
+	protected String reflect(Object value) {
+		return Json.format(diFactory.create(diFactory.actualType(ReflectionJsonIterator.class),
+				Map.of("object", value, "includeType", includeType)));
+	}
+
+	public interface Getter {
+
+		Object get(Object object, Settings settings) throws Throwable;
+	}
+
+	protected record Property(byte[] name, Getter getter) {
+
+		public Property(String name, Getter getter) {
+			this(("\"" + name + "\":").getBytes(StandardCharsets.UTF_8), getter);
+		}
+	}
+
+	protected class RecordWriter {
+
+		protected final byte[] type;
+
+		protected final Property[] properties;
+
+		public RecordWriter(String type, List<Property> properties) {
+			this.type = type != null ? ("{\"$type\":\"" + type + "\"").getBytes(StandardCharsets.UTF_8) : null;
+			this.properties = properties.toArray(Property[]::new);
+		}
+
+		public void write(Object object, Output output, Settings settings) {
+			var f = true;
+			if (type != null) {
+				output.bytes(type);
+				f = false;
+			} else
+				output.ascii('{');
+			for (var x : properties) {
+				if (f)
+					f = false;
+				else
+					output.ascii(',');
+				output.bytes(x.name());
+				Object v;
+				try {
+					v = x.getter().get(object, settings);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new RuntimeException(e);
+				}
+				JsonWriters.this.write(v, output, settings);
+			}
+			output.ascii('}');
+		}
+	}
+
+	public static class Output {
+
+		protected byte[] bytes;
+
+		protected int length;
+
+		public Output(int capacity) {
+			bytes = new byte[capacity];
+		}
+
+		public void ascii(char c) {
+			ensure(1);
+			bytes[length++] = (byte) c;
+		}
+
+		public void ascii(String string) {
+			var n = string.length();
+			ensure(n);
+			for (var i = 0; i < n; i++)
+				bytes[length++] = (byte) string.charAt(i);
+		}
+
+		public void bytes(byte[] bytes) {
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, this.bytes, length, bytes.length);
+			length += bytes.length;
+		}
+
+		public void string(String string) {
+			var n = string.length();
+			ensure(n * 3 + 2);
+			bytes[length++] = '"';
+			for (var i = 0; i < n; i++) {
+				var c = string.charAt(i);
+				if (c == '"' || c == '\\') {
+					ensure(2 + (n - i) * 3);
+					bytes[length++] = '\\';
+					bytes[length++] = (byte) c;
+				} else if (c < 0x20) {
+					ensure(6 + (n - i) * 3);
+					bytes[length++] = '\\';
+					bytes[length++] = 'u';
+					bytes[length++] = '0';
+					bytes[length++] = '0';
+					bytes[length++] = HEX[c >> 4];
+					bytes[length++] = HEX[c & 0xf];
+				} else if (c < 0x80)
+					bytes[length++] = (byte) c;
+				else if (c < 0x800) {
+					bytes[length++] = (byte) (0xc0 | (c >> 6));
+					bytes[length++] = (byte) (0x80 | (c & 0x3f));
+				} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(string.charAt(i + 1))) {
+					var p = Character.toCodePoint(c, string.charAt(++i));
+					bytes[length++] = (byte) (0xf0 | (p >> 18));
+					bytes[length++] = (byte) (0x80 | ((p >> 12) & 0x3f));
+					bytes[length++] = (byte) (0x80 | ((p >> 6) & 0x3f));
+					bytes[length++] = (byte) (0x80 | (p & 0x3f));
+				} else {
+					if (Character.isSurrogate(c))
+						c = '\ufffd';
+					bytes[length++] = (byte) (0xe0 | (c >> 12));
+					bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+					bytes[length++] = (byte) (0x80 | (c & 0x3f));
+				}
+			}
+			bytes[length++] = '"';
+		}
+
+		public int length() {
+			return length;
+		}
+
+		public byte[] toByteArray() {
+			return Arrays.copyOf(bytes, length);
+		}
+
+		protected void ensure(int n) {
+			if (length + n > bytes.length)
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + n));
+		}
+	}
+}
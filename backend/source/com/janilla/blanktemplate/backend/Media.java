@@ -25,19 +25,50 @@
 package com.janilla.blanktemplate.backend;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import com.janilla.cms.Document;
 import com.janilla.cms.DocumentStatus;
 import com.janilla.persistence.Store;
 
 @Store
+@RangeIndex("createdAt")
+@RangeIndex("updatedAt")
+@RangeIndex("publishedAt")
+@RangeIndex({ "documentStatus", "updatedAt" })
+@TextIndex({ "alt", "caption" })
 public record Media(Long id, File file, String alt, String caption, Instant createdAt, Instant updatedAt,
 		DocumentStatus documentStatus, Instant publishedAt) implements Document<Long> {
 
+	public static String uri(String apiUrl, File file) {
+		return file != null ? apiUrl + "/images/" + file.name() : null;
+	}
+
+	public static String uri(String apiUrl, File file, String size) {
+		return file != null ? apiUrl + "/media/file/" + file.name() + "/" + size : null;
+	}
+
+	public static Map<String, String> sizes(String apiUrl, Set<String> sizes, File file) {
+		if (file == null || ImageDerivatives.format(file.name()) == null)
+			return null;
+		var m = new LinkedHashMap<String, String>();
+		for (var x : sizes)
+			m.put(x, uri(apiUrl, file, x));
+		return m;
+	}
+
 	public String uri() {
-		var a = BlankBackend.INSTANCE.get();
-		return file != null
-				? (a.configuration().getProperty(a.configurationKey + ".api.url") + "/images/" + file.name())
-				: null;
+		return uri(BlankBackend.INSTANCE.get().settings().get().apiUrl(), file);
+	}
+
+	public String uri(String size) {
+		return uri(BlankBackend.INSTANCE.get().settings().get().apiUrl(), file, size);
+	}
+
+	public Map<String, String> sizes() {
+		var s = BlankBackend.INSTANCE.get().settings().get();
+		return sizes(s.apiUrl(), s.imageSizes().keySet(), file);
 	}
 }
@@ -24,41 +24,70 @@
  */
 package com.janilla.blanktemplate.backend;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Properties;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
-import com.janilla.backend.cms.CmsResourceHandlerFactory;
 import com.janilla.backend.cms.AbstractCollectionApi;
 import com.janilla.backend.persistence.Persistence;
 import com.janilla.http.HttpExchange;
+import com.janilla.http.HttpRequest;
 import com.janilla.http.HttpResponse;
 import com.janilla.web.Handle;
 
 @Handle(path = "/api/media")
 public class MediaApi extends AbstractCollectionApi<Long, Media> {
 
-	protected final Properties configuration;
+	protected final BulkOperations<Media> bulk;
 
-	protected final String configurationKey;
+	protected final CollectionPages collectionPages;
 
-	public MediaApi(Predicate<HttpExchange> drafts, Persistence persistence, Properties configuration,
-			String configurationKey) {
+	protected final SettingsSource settings;
+
+	public MediaApi(Predicate<HttpExchange> drafts, Persistence persistence, SettingsSource settings,
+			ConverterRegistry converterRegistry, GroupCommitter groupCommitter, CollectionChanges collectionChanges,
+			CollectionPages collectionPages) {
 		super(Media.class, drafts, persistence);
-		this.configuration = configuration;
-		this.configurationKey = configurationKey;
+		this.settings = settings;
+		this.collectionPages = collectionPages;
+		bulk = new BulkOperations<>(Media.class, Set.of(), (x, _) -> x, converterRegistry.get(null), groupCommitter,
+				persistence, collectionChanges, settings);
+	}
+
+	@Handle(method = "POST", path = "bulk")
+	public List<BulkOperations.Result> bulkCreate(HttpRequest request) throws IOException {
+		return bulk.create(request);
+	}
+
+	@Handle(method = "PATCH", path = "bulk")
+	public List<BulkOperations.Result> bulkUpdate(HttpRequest request) throws IOException {
+		return bulk.update(request);
+	}
+
+	@Handle(method = "DELETE", path = "bulk")
+	public List<BulkOperations.Result> bulkDelete(HttpRequest request) throws IOException {
+		return bulk.delete(request);
+	}
+
+	@Handle(method = "GET", path = "cursor")
+	public void cursor(HttpExchange exchange) {
+		collectionPages.write(Media.class, exchange);
+	}
+
+	@Handle(method = "GET", path = "file/([^/]+)")
+	public void file(Path path, HttpRequest request, HttpResponse response) throws IOException {
+		var f = settings.get().uploadDirectory().resolve(path.getFileName());
+		FileSender.send(f, request, response);
 	}
 
-	@Handle(method = "GET", path = "file/(.+)")
-	public void file(Path path, HttpResponse response) {
-		Path d;
-		{
-			var x = configuration.getProperty(configurationKey + ".upload.directory");
-			if (x.startsWith("~"))
-				x = System.getProperty("user.home") + x.substring(1);
-			d = Path.of(x);
-		}
-		var f = d.resolve(path.getFileName());
-		CmsResourceHandlerFactory.handle(f, response);
+	@Handle(method = "GET", path = "file/([^/]+)/([\\w-]+)")
+	public void fileSize(Path path, String size, HttpRequest request, HttpResponse response) throws IOException {
+		var s = settings.get();
+		var n = path.getFileName().toString();
+		var f = s.imageSizes().containsKey(size) ? s.uploadDirectory().resolve(ImageDerivatives.name(n, size)) : null;
+		FileSender.send(f != null && Files.exists(f) ? f : s.uploadDirectory().resolve(n), request, response);
 	}
 }
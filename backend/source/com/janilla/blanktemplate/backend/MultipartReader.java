@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MultipartReader {
+
+	public static String boundary(String contentType) {
+		if (contentType == null || !contentType.toLowerCase().startsWith("multipart/"))
+			return null;
+		for (var x : contentType.split(";")) {
+			var y = x.trim();
+			if (y.toLowerCase().startsWith("boundary=")) {
+				var b = y.substring("boundary=".length());
+				return b.length() >= 2 && b.startsWith("\"") && b.endsWith("\"") ? b.substring(1, b.length() - 1) : b;
+			}
+		}
+		return null;
+	}
+
+	protected final ByteBuffer buffer;
+
+	protected final ReadableByteChannel channel;
+
+	protected final byte[] delimiter;
+
+	protected boolean end;
+
+	protected final long limit;
+
+	protected long read;
+
+	public MultipartReader(ReadableByteChannel channel, String boundary, int bufferSize, long limit) {
+		this.channel = channel;
+		this.limit = limit;
+		delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+		buffer = ByteBuffer.allocate(Math.max(bufferSize, 4 * delimiter.length));
+		buffer.put((byte) '\r').put((byte) '\n').flip();
+	}
+
+	public Map<String, String> nextPart() throws IOException {
+		if (end)
+			return null;
+		transferTo(null);
+		buffer.position(buffer.position() + delimiter.length);
+		require(2);
+		var b1 = buffer.get();
+		var b2 = buffer.get();
+		if (b1 == '-' && b2 == '-') {
+			end = true;
+			return null;
+		}
+		if (b1 != '\r' || b2 != '\n')
+			throw new MalformedMultipartException("Malformed multipart delimiter");
+
+		var hh = new LinkedHashMap<String, String>();
+		for (var l = line(); !l.isEmpty(); l = line()) {
+			var i = l.indexOf(':');
+			if (i > 0)
+				hh.put(l.substring(0, i).trim().toLowerCase(), l.substring(i + 1).trim());
+		}
+		return hh;
+	}
+
+	public long transferTo(WritableByteChannel target) throws IOException {
+		var n = 0L;
+		for (;;) {
+			var i = indexOf(delimiter);
+			if (i != -1)
+				return n + write(target, i - buffer.position());
+			var k = buffer.remaining() - (delimiter.length - 1);
+			if (k > 0)
+				n += write(target, k);
+			if (!fill())
+				throw new MalformedMultipartException("Unexpected end of multipart body");
+		}
+	}
+
+	public long read() {
+		return read;
+	}
+
+	protected boolean fill() throws IOException {
+		buffer.compact();
+		int r;
+		try {
+			r = channel.read(buffer);
+		} finally {
+			buffer.flip();
+		}
+		if (r == -1)
+			return false;
+		read += r;
+		if (read > limit)
+			throw new PayloadTooLargeException("Upload exceeds " + limit + " bytes");
+		return true;
+	}
+
+	protected int indexOf(byte[] bytes) {
+		var a = buffer.array();
+		var o = buffer.arrayOffset();
+		var l = buffer.limit() - bytes.length;
+		for (var i = buffer.position(); i <= l; i++) {
+			var j = 0;
+			while (j < bytes.length && a[o + i + j] == bytes[j])
+				j++;
+			if (j == bytes.length)
+				return i;
+		}
+		return -1;
+	}
+
+	protected String line() throws IOException {
+		for (;;) {
+			var a = buffer.array();
+			var o = buffer.arrayOffset();
+			for (var i = buffer.position(); i < buffer.limit() - 1; i++)
+				if (a[o + i] == '\r' && a[o + i + 1] == '\n') {
+					var s = new String(a, o + buffer.position(), i - buffer.position(), StandardCharsets.UTF_8);
+					buffer.position(i + 2);
+					return s;
+				}
+			if (buffer.remaining() == buffer.capacity())
+				throw new MalformedMultipartException("Multipart header too long");
+			if (!fill())
+				throw new MalformedMultipartException("Unexpected end of multipart body");
+		}
+	}
+
+	protected void require(int length) throws IOException {
+		while (buffer.remaining() < length)
+			if (!fill())
+				throw new MalformedMultipartException("Unexpected end of multipart body");
+	}
+
+	protected int write(WritableByteChannel target, int length) throws IOException {
+		var p = buffer.position();
+		if (target != null) {
+			var s = buffer.slice(p, length);
+			while (s.hasRemaining())
+				target.write(s);
+		}
+		buffer.position(p + length);
+		return length;
+	}
+}
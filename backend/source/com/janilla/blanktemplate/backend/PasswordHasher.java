@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+public class PasswordHasher {
+
+	protected static final ThreadLocal<SecretKeyFactory> SECRET = ThreadLocal.withInitial(() -> {
+		try {
+			return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512");
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		}
+	});
+
+	protected static final byte[] DIGEST_KEY = new byte[32];
+
+	static {
+		new SecureRandom().nextBytes(DIGEST_KEY);
+	}
+
+	protected static final ThreadLocal<Mac> DIGEST = ThreadLocal.withInitial(() -> {
+		try {
+			var m = Mac.getInstance("HmacSHA256");
+			m.init(new SecretKeySpec(DIGEST_KEY, "HmacSHA256"));
+			return m;
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		}
+	});
+
+	public static byte[] derive(char[] password, byte[] salt) {
+		var ks = new PBEKeySpec(password, salt, 10000, 512);
+		try {
+			return SECRET.get().generateSecret(ks).getEncoded();
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		} finally {
+			ks.clearPassword();
+		}
+	}
+
+	protected final ExecutorService executor;
+
+	protected final SettingsSource settings;
+
+	protected final Map<Credential, Verification> verifications = new ConcurrentHashMap<>();
+
+	public PasswordHasher(Properties configuration, String configurationKey, SettingsSource settings) {
+		var t = Integer.parseInt(configuration.getProperty(configurationKey + ".password.hashing.threads"));
+		var q = Integer.parseInt(configuration.getProperty(configurationKey + ".password.hashing.queue"));
+		executor = new ThreadPoolExecutor(t, t, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(q),
+				Thread.ofPlatform().name("password-hasher-", 0).daemon().factory(),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.settings = settings;
+	}
+
+	public byte[] hash(char[] password, byte[] salt) {
+		Future<byte[]> f;
+		try {
+			f = executor.submit(() -> derive(password, salt));
+		} catch (RejectedExecutionException e) {
+			throw new ServiceUnavailableException("Too many concurrent password operations, please retry later");
+		}
+		try {
+			return f.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof RuntimeException x ? x : new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			f.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	public boolean verify(Object userId, String salt, String hash, String password) {
+		if (salt == null || hash == null || password == null)
+			return false;
+		var c = new Credential(userId, salt, digest(password));
+		var n = System.nanoTime();
+		var v = verifications.get(c);
+		if (v != null && v.hash().equals(hash) && v.expiration() - n > 0)
+			return true;
+
+		var f = HexFormat.of();
+		var h = hash(password.toCharArray(), f.parseHex(salt));
+		if (!MessageDigest.isEqual(h, f.parseHex(hash))) {
+			verifications.remove(c);
+			return false;
+		}
+
+		var s = settings.get();
+		if (verifications.size() >= s.passwordCacheSize())
+			verifications.values().removeIf(x -> x.expiration() - n <= 0);
+		if (verifications.size() < s.passwordCacheSize())
+			verifications.put(c, new Verification(hash, n + s.passwordCacheTtl().toNanos()));
+		return true;
+	}
+
+	protected String digest(String password) {
+		return HexFormat.of().formatHex(DIGEST.get().doFinal(password.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	protected record Credential(Object userId, String salt, String digest) {
+	}
+
+	protected record Verification(String hash, long expiration) {
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.util.Locale;
+
+import com.janilla.blanktemplate.common.RequestMetrics;
+import com.janilla.http.HttpRequest;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Category({ "Janilla", "Blank Template" })
+@Description("Collection write run inside its transaction, or a group commit of queued writes")
+@Label("Persistence Operation")
+@StackTrace(false)
+@Threshold("5 ms")
+public class PersistenceEvent extends Event {
+
+	public static String operation(HttpRequest request) {
+		var p = request.getPath();
+		var i = p.indexOf('/', 5);
+		var s = i != -1 ? p.substring(i + 1).split("/", 2)[0] : "";
+		var d = !s.isEmpty() && s.chars().allMatch(Character::isDigit);
+		return switch (request.getMethod()) {
+		case "GET" -> s.isEmpty() ? "list" : d ? "read" : s;
+		case "POST" -> s.isEmpty() ? "create" : s;
+		case "PATCH", "PUT" -> d ? "update" : s;
+		case "DELETE" -> d ? "delete" : s;
+		default -> request.getMethod().toLowerCase(Locale.ROOT);
+		};
+	}
+
+	@Label("Collection")
+	protected String collection;
+
+	@Label("Count")
+	protected int count;
+
+	@Label("Id")
+	protected long id;
+
+	@Label("Operation")
+	protected String operation;
+
+	@DataAmount
+	@Label("Size")
+	protected long size;
+
+	public void end(Class<?> type, HttpRequest request) {
+		end();
+		if (!shouldCommit())
+			return;
+		var p = request.getPath();
+		var s = p.substring(p.lastIndexOf('/') + 1);
+		set(type.getSimpleName(), operation(request),
+				!s.isEmpty() && s.chars().allMatch(Character::isDigit) ? Long.parseLong(s) : 0, 1,
+				RequestMetrics.length(request.getHeaderValue("content-length")));
+		commit();
+	}
+
+	public void end(String collection, String operation, int count) {
+		end();
+		if (!shouldCommit())
+			return;
+		set(collection, operation, 0, count, 0);
+		commit();
+	}
+
+	protected void set(String collection, String operation, long id, int count, long size) {
+		this.collection = collection;
+		this.operation = operation;
+		this.id = id;
+		this.count = count;
+		this.size = size;
+	}
+}
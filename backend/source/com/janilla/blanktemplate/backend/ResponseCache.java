@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ResponseCache {
+
+	public static final ScopedValue<Recording> RECORDING = ScopedValue.newInstance();
+
+	protected final CollectionVersions collectionVersions;
+
+	protected final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	protected final ReentrantLock eviction = new ReentrantLock();
+
+	protected final LongAdder evictions = new LongAdder();
+
+	protected final LongAdder hits = new LongAdder();
+
+	protected final LongAdder misses = new LongAdder();
+
+	protected final SettingsSource settings;
+
+	protected final AtomicLong weight = new AtomicLong();
+
+	public ResponseCache(CollectionVersions collectionVersions, SettingsSource settings) {
+		this.collectionVersions = collectionVersions;
+		this.settings = settings;
+	}
+
+	public static Key key(Class<?> collection, String target, boolean drafts) {
+		var i = target.indexOf('?');
+		if (i == -1)
+			return new Key(collection, target, drafts);
+		var pp = target.substring(i + 1).split("&");
+		Arrays.sort(pp);
+		var b = new StringBuilder(target.length()).append(target, 0, i);
+		var f = true;
+		for (var x : pp)
+			if (!x.isEmpty()) {
+				b.append(f ? '?' : '&').append(x);
+				f = false;
+			}
+		return new Key(collection, b.toString(), drafts);
+	}
+
+	public byte[] get(Key key) {
+		var v = collectionVersions.version(key.collection());
+		var e = entries.get(key);
+		if (e != null && e.version == v && e.generation == settings.generation()) {
+			e.used = System.nanoTime();
+			hits.increment();
+			return e.bytes;
+		}
+		if (e != null && entries.remove(key, e))
+			weight.addAndGet(-e.bytes.length);
+		misses.increment();
+		return null;
+	}
+
+	public Recording recording(Key key) {
+		return new Recording(key, collectionVersions.version(key.collection()), settings.generation(),
+				settings.get().responseCacheMaxEntryWeight());
+	}
+
+	public void put(Recording recording) {
+		var s = settings.get();
+		if (!recording.complete || recording.length > s.responseCacheMaxEntryWeight()
+				|| recording.version != collectionVersions.version(recording.key.collection())
+				|| recording.generation != settings.generation())
+			return;
+		var bb = Arrays.copyOf(recording.bytes, recording.length);
+		var e = entries.put(recording.key, new Entry(bb, recording.version, recording.generation));
+		var w = weight.addAndGet(bb.length - (e != null ? e.bytes.length : 0));
+		if (w > s.responseCacheMaxWeight())
+			evict(s.responseCacheMaxWeight());
+	}
+
+	public Stats stats() {
+		return new Stats(entries.size(), weight.get(), settings.get().responseCacheMaxWeight(), hits.sum(),
+				misses.sum(), evictions.sum());
+	}
+
+	protected void evict(long maxWeight) {
+		if (!eviction.tryLock())
+			return;
+		try {
+			var w = maxWeight - maxWeight / 8;
+			var ee = entries.entrySet().stream().map(x -> Map.entry(x, x.getValue().used))
+					.sorted(Map.Entry.comparingByValue()).iterator();
+			while (weight.get() > w && ee.hasNext()) {
+				var x = ee.next().getKey();
+				if (entries.remove(x.getKey(), x.getValue())) {
+					weight.addAndGet(-x.getValue().bytes.length);
+					evictions.increment();
+				}
+			}
+		} finally {
+			eviction.unlock();
+		}
+	}
+
+	public record Key(Class<?> collection, String target, boolean drafts) {
+	}
+
+	public record Stats(int entries, long weight, long maxWeight, long hits, long misses, long evictions) {
+	}
+
+	protected static class Entry {
+
+		protected final byte[] bytes;
+
+		protected final long generation;
+
+		protected volatile long used = System.nanoTime();
+
+		protected final long version;
+
+		protected Entry(byte[] bytes, long version, long generation) {
+			this.bytes = bytes;
+			this.version = version;
+			this.generation = generation;
+		}
+	}
+
+	public static class Recording {
+
+		protected byte[] bytes = new byte[1024];
+
+		protected boolean complete;
+
+		protected final long generation;
+
+		protected final Key key;
+
+		protected int length;
+
+		protected final int limit;
+
+		protected final long version;
+
+		protected Recording(Key key, long version, long generation, int limit) {
+			this.key = key;
+			this.version = version;
+			this.generation = generation;
+			this.limit = limit;
+		}
+
+		public void append(byte[] bytes, int length) {
+			if (this.length + length > limit) {
+				this.length = limit + 1;
+				return;
+			}
+			if (this.length + length > this.bytes.length)
+				this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + length));
+			System.arraycopy(bytes, 0, this.bytes, this.length, length);
+			this.length += length;
+		}
+
+		public void complete() {
+			complete = true;
+		}
+	}
+}
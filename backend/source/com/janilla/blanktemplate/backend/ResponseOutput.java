@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import com.janilla.blanktemplate.common.ContentCoding;
+import com.janilla.http.HttpExchange;
+
+public class ResponseOutput extends JsonWriters.Output {
+
+	public static final ScopedValue<String> ENTITY_TAG = ScopedValue.newInstance();
+
+	protected static final int COMPRESS_SIZE = 1024;
+
+	protected static final int FLUSH_SIZE = 16 * 1024;
+
+	protected boolean committed;
+
+	protected Deflater deflater;
+
+	protected DeflaterOutputStream encoder;
+
+	protected final HttpExchange exchange;
+
+	public ResponseOutput(HttpExchange exchange) {
+		super(FLUSH_SIZE + 1024);
+		this.exchange = exchange;
+	}
+
+	public void flushIfFull() {
+		if (length >= FLUSH_SIZE)
+			flush();
+	}
+
+	public void close() {
+		if (!committed)
+			commit(true);
+		flush();
+		if (encoder != null)
+			try {
+				encoder.finish();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		if (ResponseCache.RECORDING.isBound())
+			ResponseCache.RECORDING.get().complete();
+	}
+
+	public void end() {
+		if (deflater != null)
+			deflater.end();
+	}
+
+	protected void commit(boolean complete) {
+		committed = true;
+		var rs = exchange.response();
+		if (rs.getStatus() == 0)
+			rs.setStatus(200);
+		if (ENTITY_TAG.isBound() && rs.getStatus() / 100 == 2) {
+			rs.setHeaderValue("etag", ENTITY_TAG.get());
+			if (rs.getStatus() == 200 && notModified(ENTITY_TAG.get())) {
+				rs.setStatus(304);
+				rs.setHeaderValue("vary", "Accept-Encoding");
+				return;
+			}
+		}
+		rs.setHeaderValue("content-type", "application/json");
+		rs.setHeaderValue("vary", "Accept-Encoding");
+		var c = complete && length < COMPRESS_SIZE ? null
+				: ContentCoding.negotiate(exchange.request().getHeaderValue("accept-encoding"));
+		if (c != null) {
+			rs.setHeaderValue("content-encoding", c);
+			deflater = ContentCoding.deflater(c, Deflater.DEFAULT_COMPRESSION);
+			encoder = ContentCoding.stream(Channels.newOutputStream((WritableByteChannel) rs.getBody()), c,
+					deflater);
+		} else if (complete)
+			rs.setHeaderValue("content-length", String.valueOf(length));
+	}
+
+	protected boolean notModified(String entityTag) {
+		var h = exchange.request().getHeaderValue("if-none-match");
+		if (h == null)
+			return false;
+		var t = entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+		for (var x : h.split(",")) {
+			var y = x.trim();
+			if (y.equals("*") || (y.startsWith("W/") ? y.substring(2) : y).equals(t))
+				return true;
+		}
+		return false;
+	}
+
+	protected void flush() {
+		if (!committed)
+			commit(false);
+		if (exchange.response().getStatus() == 304) {
+			length = 0;
+			return;
+		}
+		if (ResponseCache.RECORDING.isBound())
+			ResponseCache.RECORDING.get().append(bytes, length);
+		try {
+			if (encoder != null) {
+				encoder.write(bytes, 0, length);
+				encoder.flush();
+			} else {
+				var b = ByteBuffer.wrap(bytes, 0, length);
+				while (b.hasRemaining())
+					((WritableByteChannel) exchange.response().getBody()).write(b);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		length = 0;
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.janilla.json.Json;
+
+public class SessionUserCache {
+
+	protected static long lifetime(String token) {
+		var ss = token.split("\\.");
+		if (ss.length != 3)
+			return Long.MAX_VALUE;
+		Object o;
+		try {
+			o = Json.parse(new String(Base64.getUrlDecoder().decode(ss[1]), StandardCharsets.UTF_8));
+		} catch (RuntimeException e) {
+			return 0;
+		}
+		if (!(o instanceof Map<?, ?> m && m.get("exp") instanceof Number x))
+			return Long.MAX_VALUE;
+		var s = x.longValue() - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+		return s > 0 ? TimeUnit.SECONDS.toNanos(s) : 0;
+	}
+
+	protected final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	protected final AtomicLong generation = new AtomicLong();
+
+	protected final SettingsSource settings;
+
+	public SessionUserCache(SettingsSource settings) {
+		this.settings = settings;
+	}
+
+	public UserImpl get(String token, Supplier<UserImpl> loader) {
+		var n = System.nanoTime();
+		var e = entries.get(token);
+		if (e != null) {
+			if (e.expiration() - n > 0)
+				return e.user();
+			entries.remove(token, e);
+		}
+
+		var g = generation.get();
+		var u = loader.get();
+		var s = settings.get();
+		var l = Math.min(s.sessionCacheTtl().toNanos(), lifetime(token));
+		if (u != null && l > 0 && generation.get() == g) {
+			if (entries.size() >= s.sessionCacheSize())
+				evict(n, s.sessionCacheSize());
+			entries.put(token, new Entry(u, n + l));
+		}
+		return u;
+	}
+
+	public void invalidate(Long userId) {
+		generation.incrementAndGet();
+		entries.values().removeIf(x -> Objects.equals(x.user().id(), userId));
+	}
+
+	public void invalidateToken(String token) {
+		generation.incrementAndGet();
+		entries.remove(token);
+	}
+
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	protected void evict(long now, int size) {
+		entries.values().removeIf(x -> x.expiration() - now <= 0);
+		var i = entries.keySet().iterator();
+		while (entries.size() >= size && i.hasNext()) {
+			i.next();
+			i.remove();
+		}
+	}
+
+	protected record Entry(UserImpl user, long expiration) {
+	}
+}
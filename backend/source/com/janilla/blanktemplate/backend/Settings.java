@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+public record Settings(double admissionLatencyTolerance, Duration admissionRetryAfter, String apiUrl, int bulkMaxItems,
+		long bulkMaxRequestSize, String corsHeaders, String corsOrigin, int cursorMaxLimit, int groupCommitBatchSize,
+		int groupCommitBulkBatchSize, Duration groupCommitMaxDelay, Duration groupCommitTimeout, long imageMaxPixels,
+		Map<String, Integer> imageSizes, String jwtCookie, String jwtKey, boolean liveDemo, int passwordCacheSize,
+		Duration passwordCacheTtl, int responseCacheMaxEntryWeight, long responseCacheMaxWeight, Duration schemaMaxAge,
+		int sessionCacheSize, Duration sessionCacheTtl, Path uploadDirectory, int uploadMaxConcurrent,
+		long uploadMaxRequestSize, long uploadMaxTotalSize) {
+
+	public static Settings of(Properties configuration, String configurationKey) {
+		var k = configurationKey + ".";
+		return new Settings(Double.parseDouble(configuration.getProperty(k + "admission.latency-tolerance")),
+				Duration.parse(configuration.getProperty(k + "admission.retry-after")),
+				configuration.getProperty(k + "api.url"),
+				Integer.parseInt(configuration.getProperty(k + "bulk.max-items")),
+				Long.parseLong(configuration.getProperty(k + "bulk.max-request-size")),
+				configuration.getProperty(k + "api.cors.headers"), configuration.getProperty(k + "api.cors.origin"),
+				Integer.parseInt(configuration.getProperty(k + "cursor.max-limit")),
+				Integer.parseInt(configuration.getProperty(k + "database.group-commit.batch-size")),
+				Integer.parseInt(configuration.getProperty(k + "database.group-commit.bulk-batch-size")),
+				Duration.parse(configuration.getProperty(k + "database.group-commit.max-delay")),
+				Duration.parse(configuration.getProperty(k + "database.group-commit.timeout")),
+				Long.parseLong(configuration.getProperty(k + "upload.image-max-pixels")),
+				sizes(configuration.getProperty(k + "upload.image-sizes")),
+				configuration.getProperty(k + "jwt.cookie"), configuration.getProperty(k + "jwt.key"),
+				Boolean.parseBoolean(configuration.getProperty(k + "live-demo")),
+				Integer.parseInt(configuration.getProperty(k + "password.cache.size")),
+				Duration.parse(configuration.getProperty(k + "password.cache.ttl")),
+				Integer.parseInt(configuration.getProperty(k + "response-cache.max-entry-weight")),
+				Long.parseLong(configuration.getProperty(k + "response-cache.max-weight")),
+				Duration.parse(configuration.getProperty(k + "schema.max-age")),
+				Integer.parseInt(configuration.getProperty(k + "session.cache.size")),
+				Duration.parse(configuration.getProperty(k + "session.cache.ttl")),
+				path(configuration.getProperty(k + "upload.directory")),
+				Integer.parseInt(configuration.getProperty(k + "upload.max-concurrent")),
+				Long.parseLong(configuration.getProperty(k + "upload.max-request-size")),
+				Long.parseLong(configuration.getProperty(k + "upload.max-total-size")));
+	}
+
+	public static Map<String, Integer> sizes(String string) {
+		var m = new LinkedHashMap<String, Integer>();
+		if (string != null)
+			for (var x : string.split(",")) {
+				var i = x.indexOf(':');
+				if (i != -1)
+					m.put(x.substring(0, i).trim(), Integer.valueOf(x.substring(i + 1).trim()));
+			}
+		return Collections.unmodifiableMap(m);
+	}
+
+	public static Path path(String string) {
+		if (string == null)
+			return null;
+		return Path.of(string.startsWith("~") ? System.getProperty("user.home") + string.substring(1) : string);
+	}
+}
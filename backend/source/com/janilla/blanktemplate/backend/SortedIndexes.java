@@ -0,0 +1,405 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.janilla.backend.cms.User;
+import com.janilla.backend.persistence.Persistence;
+import com.janilla.json.Json;
+
+public class SortedIndexes implements CollectionChanges.Listener {
+
+	protected static final Object MAX = new Object();
+
+	protected static final Object MIN = new Object();
+
+	protected static final Set<String> OPERATORS = Set.of("eq", "gt", "gte", "lt", "lte");
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected static final Comparator<Object> NATURAL = Comparator.nullsFirst((x, y) -> ((Comparable) x).compareTo(y));
+
+	protected static final Comparator<Object> VALUE = (x, y) -> x == y ? 0
+			: x == MIN || y == MAX ? -1 : x == MAX || y == MIN ? 1 : NATURAL.compare(x, y);
+
+	protected final CursorCipher cursorCipher;
+
+	protected final Map<Class<?>, Documents> documents = new ConcurrentHashMap<>();
+
+	protected final Persistence persistence;
+
+	public SortedIndexes(Persistence persistence, CollectionChanges collectionChanges, CursorCipher cursorCipher) {
+		this.persistence = persistence;
+		this.cursorCipher = cursorCipher;
+		collectionChanges.add(this);
+	}
+
+	@Override
+	public void changed(Class<?> type, Long id) {
+		var d = documents.get(type);
+		if (d != null)
+			d.changed(id);
+	}
+
+	public Result scan(Class<?> type, Query query, Predicate<Object> filter, Consumer<Object> consumer) {
+		var d = documents.computeIfAbsent(type, Documents::new);
+		var s = query.sort() != null && !query.sort().isEmpty() ? query.sort() : "id";
+		var sp = s.startsWith("-") ? s.substring(1) : s;
+		var sc = sp.equals("id") ? null : d.components.get(sp);
+		if (!sp.equals("id") && (sc == null || !sortable(sc.getType())))
+			throw new MalformedQueryException("Unsupported sort: " + s);
+		var cc = new ArrayList<Bound>();
+		for (var x : query.conditions()) {
+			var c = d.components.get(x.property());
+			if (c == null || !sortable(c.getType()) || !OPERATORS.contains(x.operator()))
+				throw new MalformedQueryException("Unsupported condition: " + x.property() + "." + x.operator());
+			cc.add(new Bound(c, x.operator(), parse(c.getType(), x.value())));
+		}
+		d.ensure();
+
+		var p = plan(d, cc, sp);
+		var i = d.indexes.get(p.index());
+		var n = i.components.length;
+		var e = p.equality().size();
+		var lo = new Object[n];
+		var hi = new Object[n];
+		for (var j = 0; j < n; j++) {
+			lo[j] = MIN;
+			hi[j] = MAX;
+		}
+		for (var x : cc)
+			for (var j = 0; j <= e && j < n; j++)
+				if (x.component() == i.components[j])
+					switch (x.operator()) {
+					case "eq":
+						if (j < e) {
+							lo[j] = x.value();
+							hi[j] = x.value();
+						}
+						break;
+					case "gt", "gte":
+						if (j == e)
+							lo[j] = x.value();
+						break;
+					case "lt", "lte":
+						if (j == e)
+							hi[j] = x.value();
+						break;
+					}
+		NavigableSet<Key> kk = i.keys.subSet(new Key(lo, Long.MIN_VALUE), true, new Key(hi, Long.MAX_VALUE), true);
+		Predicate<Object> f = x -> filter.test(x) && cc.stream().allMatch(y -> y.test(x));
+		var z = 0;
+
+		if (p.order().equals("memory")) {
+			if (query.after() != null && !query.after().isEmpty())
+				throw new MalformedQueryException("No index supports a cursor for sort " + s);
+			var oo = new ArrayList<Object>();
+			for (var k : kk) {
+				z++;
+				var o = read(type, k.id());
+				if (o != null && f.test(o))
+					oo.add(o);
+			}
+			var v = sc != null ? sc : d.components.get("id");
+			Comparator<Object> c = Comparator.comparing(x -> value(x, v), VALUE);
+			if (oo.size() > query.limit())
+				throw new MalformedQueryException("No index supports sort " + s + ", narrow the query with conditions");
+			oo.sort(s.startsWith("-") ? c.reversed() : c);
+			oo.forEach(consumer);
+			return new Result(null, p, z);
+		}
+
+		if (s.startsWith("-"))
+			kk = kk.descendingSet();
+		if (query.after() != null && !query.after().isEmpty())
+			kk = kk.tailSet(decode(query.after(), type, p.index(), s, i), false);
+		var m = 0;
+		Key l = null;
+		for (var k : kk) {
+			if (m == query.limit())
+				return new Result(encode(type, p.index(), s, l), p, z);
+			z++;
+			var o = read(type, k.id());
+			if (o != null && f.test(o)) {
+				consumer.accept(o);
+				m++;
+			}
+			l = k;
+		}
+		return new Result(null, p, z);
+	}
+
+	protected Plan plan(Documents documents, List<Bound> bounds, String sort) {
+		Plan p = null;
+		var q = -1;
+		for (var x : documents.indexes.entrySet()) {
+			var cc = x.getValue().components;
+			var e = 0;
+			while (e < cc.length && has(bounds, cc[e], true))
+				e++;
+			var r = e < cc.length && has(bounds, cc[e], false) ? cc[e].getName() : null;
+			var o = e < cc.length ? cc[e].getName().equals(sort) : sort.equals("id");
+			var s = (o ? 1 << 16 : 0) + e * 2 + (r != null ? 1 : 0);
+			if (s > q) {
+				q = s;
+				p = new Plan(x.getKey(), Arrays.stream(cc, 0, e).map(RecordComponent::getName).toList(), r,
+						o ? "index" : "memory");
+			}
+		}
+		return p;
+	}
+
+	protected boolean has(List<Bound> bounds, RecordComponent component, boolean equality) {
+		return bounds.stream()
+				.anyMatch(x -> x.component() == component && x.operator().equals("eq") == equality);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Object read(Class<?> type, Long id) {
+		return persistence.crud((Class) type).read(id);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected List<Long> ids(Class<?> type) {
+		return persistence.crud((Class) type).list();
+	}
+
+	protected String encode(Class<?> type, String index, String sort, Key key) {
+		var oo = new ArrayList<Object>();
+		oo.add(type.getSimpleName());
+		oo.add(index);
+		oo.add(sort);
+		for (var x : key.values())
+			oo.add(x == null || x instanceof Number ? x : x instanceof Enum<?> y ? y.name() : x.toString());
+		oo.add(key.id());
+		return cursorCipher.seal(Json.format(oo).getBytes(StandardCharsets.UTF_8));
+	}
+
+	protected Key decode(String cursor, Class<?> type, String index, String sort, SortedIndex sortedIndex) {
+		var bb = cursorCipher.open(cursor);
+		List<?> oo;
+		try {
+			oo = bb != null && Json.parse(new String(bb, StandardCharsets.UTF_8)) instanceof List<?> x ? x : null;
+		} catch (RuntimeException e) {
+			oo = null;
+		}
+		var cc = sortedIndex.components;
+		if (oo == null || oo.size() != cc.length + 4 || !type.getSimpleName().equals(oo.get(0))
+				|| !index.equals(oo.get(1)) || !sort.equals(oo.get(2)) || !(oo.getLast() instanceof Number n))
+			throw new MalformedQueryException("Invalid cursor for sort " + sort);
+		var vv = new Object[cc.length];
+		for (var i = 0; i < vv.length; i++)
+			vv[i] = parse(cc[i].getType(), oo.get(i + 3));
+		return new Key(vv, n.longValue());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Object parse(Class<?> type, Object value) {
+		if (value == null)
+			return null;
+		try {
+			if (type == String.class)
+				return (String) value;
+			if (type == Instant.class)
+				return Instant.parse((String) value);
+			if (type == Long.class || type == long.class)
+				return value instanceof Number n ? n.longValue() : Long.valueOf((String) value);
+			if (type == Integer.class || type == int.class)
+				return value instanceof Number n ? n.intValue() : Integer.valueOf((String) value);
+			if (type == Double.class || type == double.class)
+				return value instanceof Number n ? n.doubleValue() : Double.valueOf((String) value);
+			if (type == Boolean.class || type == boolean.class)
+				return value instanceof Boolean b ? b : Boolean.valueOf((String) value);
+			if (type.isEnum())
+				return Enum.valueOf((Class) type, (String) value);
+		} catch (RuntimeException e) {
+		}
+		throw new MalformedQueryException("Invalid value: " + value);
+	}
+
+	protected static boolean sortable(Class<?> type) {
+		return type.isPrimitive() || type == String.class || type == Instant.class || type.isEnum()
+				|| Number.class.isAssignableFrom(type) && Comparable.class.isAssignableFrom(type)
+				|| type == Boolean.class;
+	}
+
+	protected static Object value(Object object, RecordComponent component) {
+		try {
+			return component.getAccessor().invoke(object);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public record Condition(String property, String operator, String value) {
+	}
+
+	public record Plan(String index, List<String> equality, String range, String order) {
+	}
+
+	public record Query(List<Condition> conditions, String sort, String after, int limit) {
+	}
+
+	public record Result(String next, Plan plan, int scanned) {
+	}
+
+	protected record Bound(RecordComponent component, String operator, Object value) {
+
+		protected boolean test(Object document) {
+			var v = SortedIndexes.value(document, component);
+			if (v == null)
+				return operator.equals("eq") && value == null;
+			var c = VALUE.compare(v, value);
+			return switch (operator) {
+			case "eq" -> c == 0;
+			case "gt" -> c > 0;
+			case "gte" -> c >= 0;
+			case "lt" -> c < 0;
+			default -> c <= 0;
+			};
+		}
+	}
+
+	protected record Key(Object[] values, Long id) {
+	}
+
+	protected class Documents {
+
+		protected final Map<String, RecordComponent> components = new HashMap<>();
+
+		protected final Map<String, SortedIndex> indexes = new LinkedHashMap<>();
+
+		protected final Map<Long, Key[]> keys = new ConcurrentHashMap<>();
+
+		protected boolean loaded;
+
+		protected boolean stale;
+
+		protected final Class<?> type;
+
+		protected Documents(Class<?> type) {
+			this.type = type;
+			var m = new HashMap<String, RecordComponent>();
+			for (var x : type.getRecordComponents())
+				m.put(x.getName(), x);
+			components.put("id", m.get("id"));
+			indexes.put("id", new SortedIndex(new RecordComponent[0]));
+			for (var x : type.getAnnotationsByType(RangeIndex.class)) {
+				var cc = Arrays.stream(x.value()).map(y -> {
+					var c = m.get(y);
+					if (c == null || !sortable(c.getType()))
+						throw new IllegalArgumentException(type.getSimpleName() + "." + y + " is not sortable");
+					if (User.class.isAssignableFrom(type) && UserImpl.HIDDEN.contains(y))
+						throw new IllegalArgumentException(type.getSimpleName() + "." + y + " cannot be indexed");
+					components.put(y, c);
+					return c;
+				}).toArray(RecordComponent[]::new);
+				indexes.putIfAbsent(String.join(",", x.value()), new SortedIndex(cc));
+			}
+		}
+
+		protected synchronized void ensure() {
+			if (!loaded) {
+				for (var x : ids(type))
+					put(x, read(type, x));
+				loaded = true;
+				stale = false;
+			} else if (stale) {
+				var ii = new HashSet<>(ids(type));
+				for (var x : keys.keySet())
+					if (!ii.contains(x))
+						put(x, null);
+				for (var x : ii)
+					put(x, read(type, x));
+				stale = false;
+			}
+		}
+
+		protected synchronized void changed(Long id) {
+			if (!loaded)
+				;
+			else if (id == null)
+				stale = true;
+			else
+				put(id, read(type, id));
+		}
+
+		protected void put(Long id, Object document) {
+			var ii = indexes.values().toArray(SortedIndex[]::new);
+			var kk = keys.remove(id);
+			if (kk != null)
+				for (var i = 0; i < ii.length; i++)
+					ii[i].keys.remove(kk[i]);
+			if (document == null)
+				return;
+			kk = new Key[ii.length];
+			for (var i = 0; i < ii.length; i++) {
+				kk[i] = ii[i].key(document, id);
+				ii[i].keys.add(kk[i]);
+			}
+			keys.put(id, kk);
+		}
+	}
+
+	protected static class SortedIndex {
+
+		protected final RecordComponent[] components;
+
+		protected final NavigableSet<Key> keys;
+
+		protected SortedIndex(RecordComponent[] components) {
+			this.components = components;
+			keys = new ConcurrentSkipListSet<>((x, y) -> {
+				for (var i = 0; i < components.length; i++) {
+					var c = VALUE.compare(x.values()[i], y.values()[i]);
+					if (c != 0)
+						return c;
+				}
+				return x.id().compareTo(y.id());
+			});
+		}
+
+		protected Key key(Object document, Long id) {
+			return new Key(Arrays.stream(components).map(x -> value(document, x)).toArray(), id);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.janilla.backend.persistence.Persistence;
+
+public class TextIndexes implements CollectionChanges.Listener {
+
+	protected static final int HEADROOM = 32;
+
+	protected static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	protected static final int MAX_EXPANSION = 256;
+
+	protected static final Comparator<Map.Entry<Long, Double>> RANK = Map.Entry.<Long, Double>comparingByValue()
+			.reversed().thenComparing(Map.Entry.comparingByKey());
+
+	public static List<String> tokens(String text) {
+		var tt = new ArrayList<String>();
+		if (text == null)
+			return tt;
+		var s = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+		var b = -1;
+		for (var i = 0; i <= s.length(); i++) {
+			var l = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+			if (l && b == -1)
+				b = i;
+			else if (!l && b != -1) {
+				tt.add(s.substring(b, i));
+				b = -1;
+			}
+		}
+		return tt;
+	}
+
+	public static List<Map.Entry<Long, Double>> top(Map<Long, Double> scores, int size) {
+		var q = new PriorityQueue<Map.Entry<Long, Double>>(size + 1, RANK.reversed());
+		for (var x : scores.entrySet()) {
+			q.add(x);
+			if (q.size() > size)
+				q.poll();
+		}
+		var ee = new ArrayList<>(q);
+		ee.sort(RANK);
+		return ee;
+	}
+
+	protected final Map<Class<?>, Documents> documents = new ConcurrentHashMap<>();
+
+	protected final Persistence persistence;
+
+	public TextIndexes(Persistence persistence, CollectionChanges collectionChanges) {
+		this.persistence = persistence;
+		collectionChanges.add(this);
+	}
+
+	public boolean supports(Class<?> type) {
+		return type.isAnnotationPresent(TextIndex.class);
+	}
+
+	@Override
+	public void changed(Class<?> type, Long id) {
+		var d = documents.get(type);
+		if (d != null)
+			d.changed(id);
+	}
+
+	public void search(Class<?> type, String text, int limit, Predicate<Object> filter, Consumer<Object> consumer) {
+		if (!supports(type))
+			throw new MalformedQueryException("Search is not supported on " + type.getSimpleName());
+		var d = documents.computeIfAbsent(type, Documents::new);
+		d.ensure();
+
+		Map<Long, Double> ss = null;
+		var n = Math.max(d.terms.size(), 1);
+		for (var t : new HashSet<>(tokens(text))) {
+			var m = new HashMap<Long, Double>();
+			var e = 0;
+			for (var x : d.postings.subMap(t, true, t + Character.MAX_VALUE, false).entrySet()) {
+				if (e++ == MAX_EXPANSION)
+					break;
+				var pp = x.getValue();
+				var f = Math.log(1.0 + (double) n / Math.max(pp.size(), 1)) * (x.getKey().equals(t) ? 2 : 1);
+				for (var y : pp.entrySet())
+					m.merge(y.getKey(), y.getValue() * f, Math::max);
+			}
+			if (ss == null)
+				ss = m;
+			else {
+				var z = m;
+				ss.keySet().retainAll(z.keySet());
+				ss.replaceAll((k, v) -> v + z.get(k));
+			}
+			if (ss.isEmpty())
+				return;
+		}
+		if (ss == null)
+			return;
+
+		var c = 0;
+		for (var k = limit + HEADROOM; c < limit && !ss.isEmpty(); k *= 2)
+			for (var x : top(ss, k)) {
+				ss.remove(x.getKey());
+				if (c == limit)
+					break;
+				var o = read(type, x.getKey());
+				if (o != null && filter.test(o)) {
+					consumer.accept(o);
+					c++;
+				}
+			}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Object read(Class<?> type, Long id) {
+		return persistence.crud((Class) type).read(id);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected List<Long> ids(Class<?> type) {
+		return persistence.crud((Class) type).list();
+	}
+
+	protected class Documents {
+
+		protected final RecordComponent[] components;
+
+		protected boolean loaded;
+
+		protected final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+
+		protected boolean stale;
+
+		protected final Map<Long, Map<String, Integer>> terms = new ConcurrentHashMap<>();
+
+		protected final Class<?> type;
+
+		protected Documents(Class<?> type) {
+			this.type = type;
+			var nn = Arrays.asList(type.getAnnotation(TextIndex.class).value());
+			components = Arrays.stream(type.getRecordComponents()).filter(x -> nn.contains(x.getName()))
+					.toArray(RecordComponent[]::new);
+		}
+
+		protected synchronized void ensure() {
+			if (!loaded) {
+				for (var x : ids(type))
+					put(x, read(type, x));
+				loaded = true;
+				stale = false;
+			} else if (stale) {
+				var ii = new HashSet<>(ids(type));
+				for (var x : terms.keySet())
+					if (!ii.contains(x))
+						put(x, null);
+				for (var x : ii)
+					put(x, read(type, x));
+				stale = false;
+			}
+		}
+
+		protected synchronized void changed(Long id) {
+			if (!loaded)
+				;
+			else if (id == null)
+				stale = true;
+			else
+				put(id, read(type, id));
+		}
+
+		protected void put(Long id, Object document) {
+			var tt = terms.remove(id);
+			if (tt != null)
+				for (var t : tt.keySet())
+					postings.computeIfPresent(t, (_, x) -> {
+						x.remove(id);
+						return x.isEmpty() ? null : x;
+					});
+			if (document == null)
+				return;
+			tt = new HashMap<>();
+			for (var c : components) {
+				Object v;
+				try {
+					v = c.getAccessor().invoke(document);
+				} catch (IllegalAccessException | InvocationTargetException e) {
+					throw new RuntimeException(e);
+				}
+				for (var t : tokens(v != null ? v.toString() : null))
+					tt.merge(t, 1, Integer::sum);
+			}
+			for (var x : tt.entrySet())
+				postings.computeIfAbsent(x.getKey(), _ -> new ConcurrentHashMap<>()).put(id, x.getValue());
+			terms.put(id, tt);
+		}
+	}
+}
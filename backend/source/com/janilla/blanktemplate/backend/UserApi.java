@@ -24,7 +24,8 @@
  */
 package com.janilla.blanktemplate.backend;
 
-import java.util.Properties;
+import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -32,14 +33,44 @@ import com.janilla.backend.cms.AbstractUserApi;
 import com.janilla.backend.cms.UserHttpExchange;
 import com.janilla.backend.persistence.Persistence;
 import com.janilla.http.HttpExchange;
+import com.janilla.http.HttpRequest;
 import com.janilla.web.Handle;
 
 @Handle(path = "/api/users")
 public class UserApi extends AbstractUserApi<Long, UserImpl, UserRoleImpl> {
 
-	public UserApi(Predicate<HttpExchange> drafts, Persistence persistence, Properties configuration,
-			String configurationKey) {
-		super(UserImpl.class, drafts, persistence, configuration.getProperty(configurationKey + ".jwt.key"));
+	protected final BulkOperations<UserImpl> bulk;
+
+	protected final CollectionPages collectionPages;
+
+	public UserApi(Predicate<HttpExchange> drafts, Persistence persistence, SettingsSource settings,
+			ConverterRegistry converterRegistry, GroupCommitter groupCommitter, CollectionChanges collectionChanges,
+			CollectionPages collectionPages) {
+		super(UserImpl.class, drafts, persistence, settings.get().jwtKey());
+		this.collectionPages = collectionPages;
+		bulk = new BulkOperations<>(UserImpl.class, UserImpl.HIDDEN,
+				(x, y) -> y.get("password") instanceof String p ? x.withPassword(p) : x, converterRegistry.get(null),
+				groupCommitter, persistence, collectionChanges, settings);
+	}
+
+	@Handle(method = "POST", path = "bulk")
+	public List<BulkOperations.Result> bulkCreate(HttpRequest request) throws IOException {
+		return bulk.create(request);
+	}
+
+	@Handle(method = "PATCH", path = "bulk")
+	public List<BulkOperations.Result> bulkUpdate(HttpRequest request) throws IOException {
+		return bulk.update(request);
+	}
+
+	@Handle(method = "DELETE", path = "bulk")
+	public List<BulkOperations.Result> bulkDelete(HttpRequest request) throws IOException {
+		return bulk.delete(request);
+	}
+
+	@Handle(method = "GET", path = "cursor")
+	public void cursor(HttpExchange exchange) {
+		collectionPages.write(UserImpl.class, exchange);
 	}
 
 	@Override
@@ -24,49 +24,38 @@
  */
 package com.janilla.blanktemplate.backend;
 
-import java.security.Key;
-import java.security.NoSuchAlgorithmException;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
-import java.security.spec.InvalidKeySpecException;
 import java.time.Instant;
 import java.util.HexFormat;
 import java.util.Random;
 import java.util.Set;
 
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
-
 import com.janilla.backend.cms.User;
 import com.janilla.cms.DocumentStatus;
 import com.janilla.persistence.Index;
 import com.janilla.persistence.Store;
 
 @Store
+@RangeIndex("createdAt")
+@RangeIndex("updatedAt")
+@RangeIndex("publishedAt")
+@RangeIndex({ "documentStatus", "updatedAt" })
 public record UserImpl(Long id, String name, @Index String email, String salt, String hash,
 		@Index String resetPasswordToken, Instant resetPasswordExpiration, Set<UserRoleImpl> roles, Instant createdAt,
 		Instant updatedAt, DocumentStatus documentStatus, Instant publishedAt) implements User<Long, UserRoleImpl> {
 
-	private static final SecretKeyFactory SECRET;
+	public static final Set<String> HIDDEN = Set.of("hash", "resetPasswordExpiration", "resetPasswordToken", "salt");
 
 	private static final Random RANDOM = new SecureRandom();
 
-	static {
-		try {
-			SECRET = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512");
-		} catch (NoSuchAlgorithmException e) {
-			throw new RuntimeException(e);
-		}
+	private static PasswordHasher hasher() {
+		return BlankBackend.INSTANCE.isBound() ? BlankBackend.INSTANCE.get().passwordHasher() : null;
 	}
 
 	private static byte[] hash(char[] password, byte[] salt) {
-		var ks = new PBEKeySpec(password, salt, 10000, 512);
-		Key k;
-		try {
-			k = SECRET.generateSecret(ks);
-		} catch (InvalidKeySpecException e) {
-			throw new RuntimeException(e);
-		}
-		return k.getEncoded();
+		var h = hasher();
+		return h != null ? h.hash(password, salt) : PasswordHasher.derive(password, salt);
 	}
 
 	@Override
@@ -76,10 +65,12 @@ public record UserImpl(Long id, String name, @Index String email, String salt, S
 
 	@Override
 	public boolean passwordEquals(String password) {
+		var x = hasher();
+		if (x != null)
+			return x.verify(id, salt, hash, password);
 		var f = HexFormat.of();
-		var s = f.parseHex(salt);
-		var h = hash(password.toCharArray(), s);
-		return f.formatHex(h).equals(hash);
+		var h = hash(password.toCharArray(), f.parseHex(salt));
+		return MessageDigest.isEqual(h, f.parseHex(hash));
 	}
 
 	@Override
@@ -28,5 +28,11 @@ module com.janilla.blanktemplate.backend {
 
 	opens com.janilla.blanktemplate.backend;
 
+	requires java.desktop;
+
+	requires jdk.jfr;
+
+	requires transitive com.janilla.blanktemplate.common;
+
 	requires transitive com.janilla.backend;
 }
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class CursorCipherTest {
+
+	static final byte[] CURSOR = "[\"UserImpl\",\"createdAt\",\"-createdAt\",\"2026-01-01T00:00:00Z\",42]"
+			.getBytes(StandardCharsets.UTF_8);
+
+	static CursorCipher cursorCipher(String jwtKey) {
+		var c = new Properties();
+		try (var x = SettingsSource.class.getResourceAsStream("configuration.properties")) {
+			c.load(x);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		c.setProperty("blank-template.jwt.key", jwtKey);
+		return new CursorCipher(new SettingsSource(c, null, "blank-template", null));
+	}
+
+	@Test
+	void roundTrip() {
+		var c = cursorCipher("k1");
+		var s = c.seal(CURSOR);
+		assertArrayEquals(CURSOR, c.open(s));
+		assertNotEquals(s, c.seal(CURSOR));
+	}
+
+	@Test
+	void opaque() {
+		var s = cursorCipher("k1").seal(CURSOR);
+		var d = new String(Base64.getUrlDecoder().decode(s), StandardCharsets.ISO_8859_1);
+		assertFalse(d.contains("2026"));
+		assertFalse(d.contains("createdAt"));
+	}
+
+	@Test
+	void tampered() {
+		var c = cursorCipher("k1");
+		var bb = Base64.getUrlDecoder().decode(c.seal(CURSOR));
+		bb[bb.length - 1] ^= 1;
+		assertNull(c.open(Base64.getUrlEncoder().withoutPadding().encodeToString(bb)));
+		assertNull(cursorCipher("k2").open(c.seal(CURSOR)));
+	}
+
+	@Test
+	void malformed() {
+		var c = cursorCipher("k1");
+		assertNull(c.open(""));
+		assertNull(c.open("not base64!"));
+		assertNull(c.open(Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(Base64.getUrlEncoder().encode(CURSOR))));
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class FileSenderTest {
+
+	static List<FileSender.Range> ranges(long... bounds) {
+		var rr = new FileSender.Range[bounds.length / 2];
+		for (var i = 0; i < rr.length; i++)
+			rr[i] = new FileSender.Range(bounds[2 * i], bounds[2 * i + 1]);
+		return List.of(rr);
+	}
+
+	@Test
+	void single() {
+		assertEquals(ranges(0, 99), FileSender.ranges("bytes=0-99", 1000));
+		assertEquals(ranges(900, 999), FileSender.ranges("bytes=900-", 1000));
+		assertEquals(ranges(990, 999), FileSender.ranges("bytes=-10", 1000));
+		assertEquals(ranges(0, 999), FileSender.ranges("bytes=-5000", 1000));
+		assertEquals(ranges(500, 999), FileSender.ranges("bytes=500-5000", 1000));
+	}
+
+	@Test
+	void unsatisfiable() {
+		assertEquals(List.of(), FileSender.ranges("bytes=-0", 1000));
+		assertEquals(List.of(), FileSender.ranges("bytes=1000-", 1000));
+		assertEquals(List.of(), FileSender.ranges("bytes=1000-2000, -0", 1000));
+		assertEquals(List.of(), FileSender.ranges("bytes=0-10", 0));
+		assertEquals(List.of(), FileSender.ranges("bytes=-10", 0));
+	}
+
+	@Test
+	void invalid() {
+		assertNull(FileSender.ranges(null, 1000));
+		assertNull(FileSender.ranges("items=0-1", 1000));
+		assertNull(FileSender.ranges("bytes=abc", 1000));
+		assertNull(FileSender.ranges("bytes=5-1", 1000));
+		assertNull(FileSender.ranges("bytes=--5", 1000));
+		assertNull(FileSender.ranges("bytes=+5-6", 1000));
+		assertNull(FileSender.ranges("bytes=-", 1000));
+		assertNull(FileSender.ranges("bytes=99999999999999999999-", 1000));
+		assertNull(FileSender.ranges("bytes=" + "0-1,".repeat(FileSender.MAX_RANGES) + "2-3", 1000));
+	}
+
+	@Test
+	void merge() {
+		assertEquals(ranges(0, 20, 22, 30), FileSender.ranges("bytes=0-10,5-20,22-30", 1000));
+		assertEquals(ranges(0, 20), FileSender.ranges("bytes=11-20,0-10", 1000));
+		assertEquals(ranges(0, 99, 990, 999), FileSender.ranges("bytes=-10,0-49,40-99,995-", 1000));
+		assertEquals(ranges(0, 999), FileSender.ranges("bytes=0-,100-200", 1000));
+	}
+
+	@Test
+	void matches() {
+		assertTrue(FileSender.matches("\"a\"", "\"a\""));
+		assertTrue(FileSender.matches("\"b\", W/\"a\"", "\"a\""));
+		assertTrue(FileSender.matches("*", "\"a\""));
+		assertFalse(FileSender.matches("\"b\"", "\"a\""));
+	}
+}
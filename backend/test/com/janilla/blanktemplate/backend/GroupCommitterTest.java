@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class GroupCommitterTest {
+
+	static SettingsSource settings(int batchSize, int bulkBatchSize) {
+		var c = new Properties();
+		try (var x = SettingsSource.class.getResourceAsStream("configuration.properties")) {
+			c.load(x);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		c.setProperty("blank-template.database.group-commit.batch-size", String.valueOf(batchSize));
+		c.setProperty("blank-template.database.group-commit.bulk-batch-size", String.valueOf(bulkBatchSize));
+		c.setProperty("blank-template.database.group-commit.max-delay", "PT0.05S");
+		return new SettingsSource(c, null, "blank-template", null);
+	}
+
+	@Test
+	void batching() throws Exception {
+		var c = new TestCommitter(settings(64, 16));
+		var l = new CountDownLatch(1);
+		var b = async(() -> c.perform(() -> c.write("blocker", l)));
+		c.awaitRunning();
+		var ff = IntStream.range(0, 10).mapToObj(i -> async(() -> c.perform(() -> c.write("w" + i, null)))).toList();
+		c.awaitQueued(10, 0);
+		l.countDown();
+		b.get();
+		for (var f : ff)
+			f.get();
+		assertEquals(List.of(List.of("blocker")), c.batches.subList(0, 1));
+		assertEquals(10, c.batches.get(1).size());
+		assertEquals(2, c.batches.size());
+	}
+
+	@Test
+	void rollback() throws Exception {
+		var c = new TestCommitter(settings(64, 16));
+		var l = new CountDownLatch(1);
+		var b = async(() -> c.perform(() -> c.write("blocker", l)));
+		c.awaitRunning();
+		var f1 = async(() -> c.perform(() -> c.write("a", null)));
+		c.awaitQueued(1, 0);
+		var f2 = async(() -> c.perform(() -> {
+			c.write("failed", null);
+			throw new IllegalStateException("failed");
+		}));
+		c.awaitQueued(2, 0);
+		var f3 = async(() -> c.perform(() -> c.write("b", null)));
+		c.awaitQueued(3, 0);
+		l.countDown();
+		b.get();
+		assertEquals("a", f1.get());
+		var e = assertThrows(ExecutionException.class, f2::get);
+		assertTrue(e.getCause() instanceof IllegalStateException);
+		assertEquals("b", f3.get());
+		assertEquals(List.of(List.of("blocker"), List.of("a", "b")), c.batches);
+	}
+
+	@Test
+	void retry() throws Exception {
+		var c = new TestCommitter(settings(64, 16));
+		var l = new CountDownLatch(1);
+		var b = async(() -> c.perform(() -> c.write("blocker", l)));
+		c.awaitRunning();
+		var f1 = async(() -> c.perform(() -> c.write("a", null)));
+		c.awaitQueued(1, 0);
+		var f2 = async(() -> c.perform(() -> c.write("conflict", null)));
+		c.awaitQueued(2, 0);
+		var f3 = async(() -> c.perform(() -> c.write("b", null)));
+		c.awaitQueued(3, 0);
+		l.countDown();
+		b.get();
+		assertEquals("a", f1.get());
+		var e = assertThrows(ExecutionException.class, f2::get);
+		assertEquals("conflict", e.getCause().getMessage());
+		assertEquals("b", f3.get());
+		assertEquals(List.of(List.of("blocker"), List.of("a"), List.of("b")), c.batches);
+	}
+
+	@Test
+	void bulkShare() throws Exception {
+		var c = new TestCommitter(settings(8, 2));
+		var l = new CountDownLatch(1);
+		var b = async(() -> c.perform(() -> c.write("blocker", l)));
+		c.awaitRunning();
+		var bb = async(() -> c.performAll(IntStream.range(0, 100)
+				.mapToObj(i -> (Supplier<String>) () -> c.write("bulk" + i, null)).toList()));
+		c.awaitQueued(0, 100);
+		var ff = IntStream.range(0, 5).mapToObj(i -> async(() -> c.perform(() -> c.write("w" + i, null)))).toList();
+		c.awaitQueued(5, 100);
+		l.countDown();
+		b.get();
+		for (var f : ff)
+			f.get();
+		for (var f : bb.get())
+			f.get();
+		var x = c.batches.get(1);
+		assertEquals(8, x.size());
+		assertTrue(x.containsAll(List.of("w0", "w1", "w2", "w3", "w4")));
+		assertEquals(106, c.batches.stream().mapToInt(List::size).sum());
+	}
+
+	static <T> CompletableFuture<T> async(Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(supplier, Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	static class TestCommitter extends GroupCommitter {
+
+		final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch running = new CountDownLatch(1);
+
+		List<String> transaction;
+
+		TestCommitter(SettingsSource settings) {
+			super(settings, null);
+		}
+
+		String write(String value, CountDownLatch latch) {
+			transaction.add(value);
+			if (latch != null) {
+				running.countDown();
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+			return value;
+		}
+
+		void awaitRunning() throws InterruptedException {
+			running.await();
+		}
+
+		void awaitQueued(int ordinary, int bulk) throws InterruptedException {
+			for (;;) {
+				lock.lock();
+				try {
+					if (queue.size() == ordinary && bulkQueue.size() == bulk)
+						return;
+				} finally {
+					lock.unlock();
+				}
+				Thread.sleep(1);
+			}
+		}
+
+		@Override
+		protected void atomically(Runnable operation) {
+			transaction = new ArrayList<>();
+			operation.run();
+			if (transaction.contains("conflict"))
+				throw new IllegalStateException("conflict");
+			batches.add(transaction);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageDerivativesTest {
+
+	static ImageDerivatives imageDerivatives() {
+		var c = new Properties();
+		try (var x = SettingsSource.class.getResourceAsStream("configuration.properties")) {
+			c.load(x);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		c.setProperty("blank-template.upload.image-max-pixels", "1000");
+		c.setProperty("blank-template.upload.image-sizes", "small:4,large:16");
+		return new ImageDerivatives(new SettingsSource(c, null, "blank-template", null));
+	}
+
+	static Path image(Path directory, String name, int width, int height) throws IOException {
+		var f = directory.resolve(name);
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", f.toFile());
+		return f;
+	}
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void generate() throws IOException {
+		var f = image(directory, "a.png", 8, 6);
+		image(directory, "a-large.png", 16, 12);
+		imageDerivatives().generate(f);
+		var i = ImageIO.read(directory.resolve("a-small.png").toFile());
+		assertEquals(4, i.getWidth());
+		assertEquals(3, i.getHeight());
+		assertFalse(Files.exists(directory.resolve("a-large.png")));
+	}
+
+	@Test
+	void corrupt() throws IOException {
+		var f = Files.writeString(directory.resolve("b.png"), "not an image");
+		image(directory, "b-small.png", 4, 4);
+		imageDerivatives().generate(f);
+		assertFalse(Files.exists(directory.resolve("b-small.png")));
+		assertTrue(Files.exists(f));
+	}
+
+	@Test
+	void tooManyPixels() throws IOException {
+		var f = image(directory, "c.png", 100, 100);
+		imageDerivatives().generate(f);
+		assertFalse(Files.exists(directory.resolve("c-small.png")));
+		assertFalse(Files.exists(directory.resolve("c-large.png")));
+	}
+
+	@Test
+	void unsupported() throws IOException {
+		var f = Files.writeString(directory.resolve("d.txt"), "text");
+		imageDerivatives().generate(f);
+		try (var s = Files.list(directory)) {
+			assertEquals(1, s.count());
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class MultipartReaderTest {
+
+	static final String BODY = "preamble\r\n--x\r\ncontent-disposition: form-data; name=\"a\"\r\n\r\nhello\r\n"
+			+ "--x\r\nContent-Disposition: form-data; name=\"b\"; filename=\"b.txt\"\r\n"
+			+ "content-type: text/plain\r\n\r\nline\r\n--y\r\n--\r\n--x--\r\n";
+
+	static ReadableByteChannel channel(String string, int chunk) {
+		var b = ByteBuffer.wrap(string.getBytes(StandardCharsets.ISO_8859_1));
+		return new ReadableByteChannel() {
+
+			@Override
+			public int read(ByteBuffer dst) {
+				if (!b.hasRemaining())
+					return -1;
+				var n = Math.min(Math.min(chunk, dst.remaining()), b.remaining());
+				dst.put(b.slice(b.position(), n));
+				b.position(b.position() + n);
+				return n;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	static String content(MultipartReader reader) throws IOException {
+		var o = new ByteArrayOutputStream();
+		reader.transferTo(Channels.newChannel(o));
+		return o.toString(StandardCharsets.ISO_8859_1);
+	}
+
+	@Test
+	void boundary() {
+		assertEquals("x", MultipartReader.boundary("multipart/form-data; boundary=x"));
+		assertEquals("a b", MultipartReader.boundary("Multipart/Form-Data; charset=utf-8; Boundary=\"a b\""));
+		assertNull(MultipartReader.boundary("multipart/form-data"));
+		assertNull(MultipartReader.boundary("application/json; boundary=x"));
+		assertNull(MultipartReader.boundary(null));
+	}
+
+	@Test
+	void parts() throws IOException {
+		for (var c : new int[] { 1, 3, 7, 1024 }) {
+			var r = new MultipartReader(channel(BODY, c), "x", 128, Long.MAX_VALUE);
+			var hh = r.nextPart();
+			assertEquals("form-data; name=\"a\"", hh.get("content-disposition"));
+			assertEquals("hello", content(r));
+			hh = r.nextPart();
+			assertEquals("form-data; name=\"b\"; filename=\"b.txt\"", hh.get("content-disposition"));
+			assertEquals("text/plain", hh.get("content-type"));
+			assertEquals("line\r\n--y\r\n--", content(r), "chunk=" + c);
+			assertNull(r.nextPart());
+			assertNull(r.nextPart());
+		}
+	}
+
+	@Test
+	void skipsUnreadContent() throws IOException {
+		var r = new MultipartReader(channel(BODY, 5), "x", 128, Long.MAX_VALUE);
+		r.nextPart();
+		assertEquals("text/plain", r.nextPart().get("content-type"));
+		assertNull(r.nextPart());
+	}
+
+	@Test
+	void truncated() throws IOException {
+		var r = new MultipartReader(channel("--x\r\ncontent-type: text/plain\r\n\r\nhel", 2), "x", 128, Long.MAX_VALUE);
+		r.nextPart();
+		assertThrows(MalformedMultipartException.class, () -> content(r));
+	}
+
+	@Test
+	void malformedDelimiter() {
+		var r = new MultipartReader(channel("--x!!\r\n\r\n", 64), "x", 128, Long.MAX_VALUE);
+		assertThrows(MalformedMultipartException.class, r::nextPart);
+	}
+
+	@Test
+	void limit() {
+		var r = new MultipartReader(channel(BODY, 8), "x", 128, 32);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			for (var hh = r.nextPart(); hh != null; hh = r.nextPart())
+				content(r);
+		});
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.janilla.ioc.DiFactory;
+
+class SortedIndexesTest {
+
+	static final Instant T = Instant.parse("2026-01-01T00:00:00Z");
+
+	@Test
+	void update() {
+		var x = new TestIndexes();
+		for (var i = 1L; i <= 3; i++)
+			x.items.put(i, new Item(i, T.plusSeconds(i)));
+		assertEquals(List.of(1L, 2L, 3L), x.order("updatedAt"));
+		x.items.put(1L, new Item(1L, T.plusSeconds(10)));
+		x.changed(Item.class, 1L);
+		assertEquals(List.of(2L, 3L, 1L), x.order("updatedAt"));
+		assertEquals(List.of(1L, 3L, 2L), x.order("-updatedAt"));
+	}
+
+	@Test
+	void wildcard() {
+		var x = new TestIndexes();
+		for (var i = 1L; i <= 3; i++)
+			x.items.put(i, new Item(i, T.plusSeconds(i)));
+		assertEquals(List.of(1L, 2L, 3L), x.order("updatedAt"));
+		x.items.put(1L, new Item(1L, T.plusSeconds(10)));
+		x.items.remove(2L);
+		x.items.put(4L, new Item(4L, T));
+		x.changed(Item.class, null);
+		assertEquals(List.of(4L, 3L, 1L), x.order("updatedAt"));
+	}
+
+	@RangeIndex("updatedAt")
+	record Item(Long id, Instant updatedAt) {
+	}
+
+	static class TestIndexes extends SortedIndexes {
+
+		final Map<Long, Item> items = new ConcurrentHashMap<>();
+
+		TestIndexes() {
+			super(null, new CollectionChanges(new DiFactory(List.of())), null);
+		}
+
+		List<Long> order(String sort) {
+			var ii = new ArrayList<Long>();
+			scan(Item.class, new Query(List.of(), sort, null, 100), _ -> true, y -> ii.add(((Item) y).id()));
+			return ii;
+		}
+
+		@Override
+		protected Object read(Class<?> type, Long id) {
+			return items.get(id);
+		}
+
+		@Override
+		protected List<Long> ids(Class<?> type) {
+			return new ArrayList<>(items.keySet());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TextIndexesTest {
+
+	@Test
+	void tokens() {
+		assertEquals(List.of("creme", "brulee", "42"), TextIndexes.tokens("Cr\u00e8me Bru\u0302le\u0301e, 42!"));
+		assertEquals(List.of(), TextIndexes.tokens("  \t "));
+		assertEquals(List.of(), TextIndexes.tokens("?!"));
+		assertEquals(List.of(), TextIndexes.tokens(null));
+	}
+
+	@Test
+	void top() {
+		var m = new HashMap<Long, Double>();
+		for (var i = 1L; i <= 1000; i++)
+			m.put(i, (double) (i % 100));
+		var ee = TextIndexes.top(m, 5);
+		assertEquals(List.of(99L, 199L, 299L, 399L, 499L), ee.stream().map(Map.Entry::getKey).toList());
+		assertEquals(1000, m.size());
+	}
+
+	@Test
+	void topSmall() {
+		var ee = TextIndexes.top(Map.of(1L, 1.0, 2L, 3.0, 3L, 2.0), 10);
+		assertEquals(List.of(2L, 3L, 1L), ee.stream().map(Map.Entry::getKey).toList());
+		assertEquals(List.of(), TextIndexes.top(Map.of(), 10));
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.janilla.blanktemplate.backend.BlankBackend;
+import com.janilla.blanktemplate.backend.File;
+import com.janilla.blanktemplate.backend.Media;
+import com.janilla.blanktemplate.backend.UserImpl;
+import com.janilla.blanktemplate.backend.UserRoleImpl;
+import com.janilla.blanktemplate.fullstack.BlankFullstack;
+import com.janilla.blanktemplate.fullstack.BlankHttpServer;
+import com.janilla.cms.DocumentStatus;
+import com.janilla.http.DirectHttpClient;
+import com.janilla.http.HttpRequest;
+import com.janilla.ioc.DiFactory;
+import com.janilla.java.Java;
+import com.janilla.json.Json;
+
+@State(Scope.Benchmark)
+public class FullstackState {
+
+	public static final String EMAIL = "benchmark@example.com";
+
+	public static final String PASSWORD = "benchmark";
+
+	public static final int MEDIA = 1000;
+
+	public static final int FILE_SIZE = 1024 * 1024;
+
+	public static Path configuration(Path directory, String... properties) throws IOException {
+		var f = directory.resolve("configuration.properties");
+		Files.writeString(f, String.join("\n", Stream.concat(Stream.of(
+				"blank-template.database.file=" + directory.resolve("blank-template.database"),
+				"blank-template.live-demo=false", "blank-template.upload.directory=" + directory.resolve("upload")),
+				Stream.of(properties)).toList()));
+		return f;
+	}
+
+	public static byte[] credentials() {
+		return Json.format(Map.of("email", EMAIL, "password", PASSWORD)).getBytes(StandardCharsets.UTF_8);
+	}
+
+	protected DirectHttpClient client;
+
+	protected String cookie;
+
+	protected Path directory;
+
+	protected BlankFullstack fullstack;
+
+	protected List<Media> media;
+
+	protected UserImpl user;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("blank-template-benchmarks");
+		var f = configuration(directory, "blank-template.api.url=/api");
+		var d = new DiFactory(Java.getPackageClasses(BlankFullstack.class.getPackageName(), true), "fullstack");
+		fullstack = d.create(BlankFullstack.class, Java.hashMap("diFactory", d, "configurationFile", f));
+		client = new DirectHttpClient(d.create(BlankHttpServer.class, Java.hashMap("handler", fullstack.handler())));
+		seed(backend());
+		cookie = login();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try (var pp = Files.walk(directory)) {
+			for (var x : pp.sorted(Comparator.reverseOrder()).toList())
+				Files.deleteIfExists(x);
+		}
+	}
+
+	public BlankBackend backend() {
+		return fullstack.backend();
+	}
+
+	public <T> T backend(Supplier<T> supplier) {
+		return ScopedValue.where(BlankBackend.INSTANCE, backend()).call(supplier::get);
+	}
+
+	public long get(String path, String... headers) {
+		var rq = new HttpRequest("GET", URI.create("https://localhost:8443" + path));
+		for (var i = 0; i + 1 < headers.length; i += 2)
+			rq.setHeaderValue(headers[i], headers[i + 1]);
+		return client.send(rq, rs -> {
+			if (rs.getStatus() >= 400)
+				throw new IllegalStateException(rq.getMethod() + " " + path + ": " + rs.getStatus());
+			try (var in = Channels.newInputStream((ReadableByteChannel) rs.getBody())) {
+				return in.transferTo(OutputStream.nullOutputStream());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	protected String login() {
+		var bb = credentials();
+		var rq = new HttpRequest("POST", URI.create("https://localhost:8443/api/users/login"));
+		rq.setHeaderValue("content-type", "application/json");
+		rq.setHeaderValue("content-length", String.valueOf(bb.length));
+		rq.setBody(Channels.newChannel(new ByteArrayInputStream(bb)));
+		return client.send(rq, rs -> {
+			try (var in = Channels.newInputStream((ReadableByteChannel) rs.getBody())) {
+				in.transferTo(OutputStream.nullOutputStream());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			var c = rs.getHeaderValue("set-cookie");
+			if (rs.getStatus() != 200 || c == null)
+				throw new IllegalStateException(rq.getMethod() + " " + rq.getPath() + ": " + rs.getStatus());
+			return c.split(";", 2)[0];
+		});
+	}
+
+	protected void seed(BlankBackend backend) throws IOException {
+		var u = backend.settings().get().uploadDirectory();
+		Files.createDirectories(u);
+		var bb = new byte[FILE_SIZE];
+		new Random(0).nextBytes(bb);
+		Files.write(u.resolve("benchmark.bin"), bb);
+
+		var n = Instant.now();
+		var p = backend.persistence();
+		user = ScopedValue.where(BlankBackend.INSTANCE, backend)
+				.call(() -> p.database().perform(() -> p.crud(UserImpl.class).create(new UserImpl(null, "Benchmark",
+						EMAIL, null, null, null, null, Set.of(UserRoleImpl.ADMIN), n, n, DocumentStatus.PUBLISHED, n)
+						.withPassword(PASSWORD)), true));
+		var mm = new ArrayList<Media>(MEDIA);
+		p.database().perform(() -> {
+			var c = p.crud(Media.class);
+			for (var i = 0; i < MEDIA; i++) {
+				var t = n.plusMillis(i);
+				mm.add(c.create(new Media(null, new File("benchmark.bin"), "Benchmark image " + i,
+						List.of("alpha", "beta", "gamma", "delta").get(i % 4) + " caption " + i,
+						t, t, DocumentStatus.PUBLISHED, t)));
+			}
+			return null;
+		}, true);
+		media = List.copyOf(mm);
+		backend.collectionChanges().changed(UserImpl.class, null);
+		backend.collectionChanges().changed(Media.class, null);
+	}
+}
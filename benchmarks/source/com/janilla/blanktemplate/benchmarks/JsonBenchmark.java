@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.janilla.blanktemplate.backend.Media;
+import com.janilla.blanktemplate.backend.UserImpl;
+import com.janilla.java.Converter;
+import com.janilla.json.Json;
+import com.janilla.json.ReflectionJsonIterator;
+
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class JsonBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int size;
+
+	protected Converter converter;
+
+	protected List<Media> media;
+
+	protected String mediaJson;
+
+	protected FullstackState state;
+
+	protected List<UserImpl> users;
+
+	@Setup(Level.Trial)
+	public void setUp(FullstackState state) {
+		this.state = state;
+		converter = state.backend().converterRegistry().get(null);
+		media = state.media.subList(0, size);
+		var u = state.user;
+		users = LongStream.range(0, size).mapToObj(x -> new UserImpl(x + 1, u.name(), x + u.email(), u.salt(),
+				u.hash(), null, null, u.roles(), u.createdAt(), u.updatedAt(), u.documentStatus(), u.publishedAt()))
+				.toList();
+		mediaJson = new String(writeMedia(), StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public List<Media> parseMedia() {
+		return ((List<?>) Json.parse(mediaJson)).stream().map(x -> (Media) converter.convert(x, Media.class))
+				.toList();
+	}
+
+	@Benchmark
+	public String reflectMedia() {
+		return state.backend(() -> reflect(media));
+	}
+
+	@Benchmark
+	public String reflectUsers() {
+		return state.backend(() -> reflect(users));
+	}
+
+	@Benchmark
+	public byte[] writeMedia() {
+		return state.backend(() -> state.backend().jsonWriters().write(media));
+	}
+
+	@Benchmark
+	public byte[] writeUsers() {
+		return state.backend(() -> state.backend().jsonWriters().write(users));
+	}
+
+	protected String reflect(Object value) {
+		var d = state.backend().diFactory();
+		return Json.format(d.create(d.actualType(ReflectionJsonIterator.class),
+				Map.of("object", value, "includeType", true)));
+	}
+}
@@ -0,0 +1,416 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.net.ssl.SSLContext;
+
+import com.janilla.blanktemplate.backend.BlankBackend;
+import com.janilla.blanktemplate.common.RequestMetrics;
+import com.janilla.blanktemplate.frontend.BlankFrontend;
+import com.janilla.http.HttpClient;
+import com.janilla.http.HttpHandler;
+import com.janilla.http.HttpRequest;
+import com.janilla.http.HttpServer;
+import com.janilla.ioc.DiFactory;
+import com.janilla.java.Java;
+
+public class LoadTest {
+
+	protected static final String BOUNDARY = "blank-template-load-test";
+
+	protected static final int BUCKETS = RequestMetrics.bucket(Long.MAX_VALUE) + 1;
+
+	public static void main(String[] args) throws Exception {
+		var o = Options.parse(args);
+		var s = new FullstackState();
+		try {
+			var t = new LoadTest(o, s);
+			t.start();
+			t.run();
+			t.report();
+		} finally {
+			s.tearDown();
+		}
+	}
+
+	protected static DiFactory diFactory(String[] packages) {
+		return new DiFactory(Arrays.stream(packages).flatMap(x -> Java.getPackageClasses(x, false).stream()).toList());
+	}
+
+	protected static SSLContext sslContext(Properties configuration, String configurationKey) {
+		var p = configuration.getProperty(configurationKey + ".server.keystore.path");
+		var w = configuration.getProperty(configurationKey + ".server.keystore.password");
+		if (p.startsWith("~"))
+			p = System.getProperty("user.home") + p.substring(1);
+		var f = Path.of(p);
+		if (!Files.exists(f))
+			Java.generateKeyPair("localhost", f, w, "dns:localhost,ip:127.0.0.1");
+		try (var s = Files.newInputStream(f)) {
+			return Java.sslContext(s, w.toCharArray());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected BlankBackend backend;
+
+	protected String backendUri;
+
+	protected HttpClient client;
+
+	protected final LongAdder dropped = new LongAdder();
+
+	protected BlankFrontend frontend;
+
+	protected String frontendUri;
+
+	protected final AtomicInteger inFlight = new AtomicInteger();
+
+	protected final Map<String, Callable<Integer>> operations = new LinkedHashMap<>();
+
+	protected final Options options;
+
+	protected final Map<String, Series> series = new LinkedHashMap<>();
+
+	protected final FullstackState state;
+
+	protected final byte[] upload;
+
+	protected final AtomicLong uploads = new AtomicLong();
+
+	public LoadTest(Options options, FullstackState state) {
+		this.options = options;
+		this.state = state;
+		upload = new byte[options.uploadSize()];
+		new Random(options.seed()).nextBytes(upload);
+		operations.put("page", () -> send("GET", frontendUri + "/", null, null, null).status());
+		operations.put("admin", () -> send("GET", frontendUri + "/admin", null, null, null).status());
+		operations.put("media",
+				() -> send("GET", backendUri + "/api/media/cursor?limit=20&sort=-createdAt", null, null, null)
+						.status());
+		operations.put("search", () -> send("GET", backendUri + "/api/media?search=gamma", null, null, null).status());
+		operations.put("login", this::login);
+		operations.put("upload", this::upload);
+		for (var x : options.mix().keySet()) {
+			if (!operations.containsKey(x))
+				throw new IllegalArgumentException("Unknown operation: " + x + " (expected one of "
+						+ operations.keySet() + ")");
+			series.put(x, new Series());
+		}
+	}
+
+	public void start() throws IOException {
+		var l = InetAddress.getLoopbackAddress();
+		switch (options.mode()) {
+		case "direct" -> {
+			state.setUp();
+			backend = state.backend();
+			frontend = state.fullstack.frontend();
+			client = state.client;
+			backendUri = frontendUri = "https://localhost";
+		}
+		case "loopback" -> {
+			state.setUp();
+			backend = state.backend();
+			frontend = state.fullstack.frontend();
+			var c = sslContext(state.fullstack.configuration(), state.fullstack.configurationKey());
+			serve(state.fullstack.diFactory(), c, new InetSocketAddress(l, options.port()), state.fullstack.handler());
+			client = new HttpClient(c);
+			backendUri = frontendUri = "https://localhost:" + options.port();
+		}
+		case "split" -> {
+			var bp = options.port();
+			var fp = bp + 1;
+			state.directory = Files.createTempDirectory("blank-template-load-test");
+			var f = FullstackState.configuration(state.directory,
+					"blank-template.api.url=https://localhost:" + bp + "/api",
+					"blank-template.api.cors.origin=https://localhost:" + fp);
+			var bd = diFactory(BlankBackend.DI_PACKAGES);
+			backend = bd.create(BlankBackend.class, Java.hashMap("diFactory", bd, "configurationFile", f));
+			var fd = diFactory(BlankFrontend.DI_PACKAGES);
+			frontend = fd.create(BlankFrontend.class, Java.hashMap("diFactory", fd, "configurationFile", f));
+			state.seed(backend);
+			var c = sslContext(backend.configuration(), backend.configurationKey());
+			serve(bd, c, new InetSocketAddress(l, bp), backend.handler());
+			serve(fd, c, new InetSocketAddress(l, fp), frontend.handler());
+			client = new HttpClient(c);
+			backendUri = "https://localhost:" + bp;
+			frontendUri = "https://localhost:" + fp;
+			var r = authenticate();
+			if (r.status() != 200 || r.cookie() == null)
+				throw new IllegalStateException("POST /api/users/login: " + r.status());
+			state.cookie = r.cookie().split(";", 2)[0];
+		}
+		default -> throw new IllegalArgumentException("Unknown mode: " + options.mode());
+		}
+		await();
+	}
+
+	public void run() throws InterruptedException {
+		var nn = options.mix().keySet().toArray(String[]::new);
+		var ww = new int[nn.length];
+		for (var i = 0; i < nn.length; i++)
+			ww[i] = (i > 0 ? ww[i - 1] : 0) + options.mix().get(nn[i]);
+		var r = new Random(options.seed());
+		var w = options.warmup().toNanos();
+		var e = w + options.duration().toNanos();
+		var t0 = System.nanoTime();
+		for (var i = 0L;; i++) {
+			var t = t0 + (long) (i * 1e9 / options.rate());
+			if (t - t0 >= e)
+				break;
+			var x = t - System.nanoTime();
+			if (x > 0)
+				LockSupport.parkNanos(x);
+			var j = Arrays.binarySearch(ww, r.nextInt(ww[ww.length - 1]) + 1);
+			var n = nn[j >= 0 ? j : -j - 1];
+			var m = t - t0 >= w;
+			if (inFlight.incrementAndGet() > options.maxInFlight()) {
+				inFlight.decrementAndGet();
+				if (m)
+					dropped.increment();
+				continue;
+			}
+			Thread.ofVirtual().start(() -> {
+				try {
+					execute(n, t, m);
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			});
+		}
+		var d = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (inFlight.get() > 0 && System.nanoTime() - d < 0)
+			TimeUnit.MILLISECONDS.sleep(10);
+	}
+
+	public void report() {
+		var s = options.duration().toNanos() / 1e9;
+		IO.println("mode=" + options.mode() + " rate=" + options.rate() + "/s duration=" + options.duration()
+				+ " warmup=" + options.warmup() + " mix=" + options.mix());
+		IO.println(String.format("%-10s %9s %7s %9s %9s %9s %9s %9s %9s", "operation", "count", "errors",
+				"rate/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+		var a = new Series();
+		for (var x : series.entrySet()) {
+			row(x.getKey(), x.getValue(), s);
+			a.add(x.getValue());
+		}
+		row("total", a, s);
+		IO.println("dropped=" + dropped.sum() + " incomplete=" + inFlight.get());
+		for (var x : series.entrySet())
+			IO.println(x.getKey() + " statuses=" + new TreeMap<>(x.getValue().statuses));
+		if (options.metrics()) {
+			IO.println(backend.requestMetrics().scrape());
+			if (frontend != null)
+				IO.println(frontend.requestMetrics().scrape());
+		}
+	}
+
+	protected Response authenticate() {
+		return send("POST", backendUri + "/api/users/login", null, "application/json", FullstackState.credentials());
+	}
+
+	protected void await() {
+		var d = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		for (;;)
+			try {
+				send("GET", backendUri + "/api/schema", null, null, null);
+				return;
+			} catch (RuntimeException e) {
+				if (System.nanoTime() - d > 0)
+					throw e;
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+			}
+	}
+
+	protected void execute(String operation, long intended, boolean measured) {
+		int s;
+		try {
+			s = operations.get(operation).call();
+		} catch (Exception e) {
+			s = -1;
+		}
+		if (measured)
+			series.get(operation).record(s, System.nanoTime() - intended);
+	}
+
+	protected int login() {
+		var r = authenticate();
+		if (r.status() >= 400 || r.cookie() == null)
+			return r.status();
+		return send("GET", backendUri + "/api/users/me", r.cookie().split(";", 2)[0], null, null).status();
+	}
+
+	protected void row(String name, Series series, double seconds) {
+		var n = series.count.sum();
+		IO.println(String.format("%-10s %9d %7d %9.1f %9.3f %9.3f %9.3f %9.3f %9.3f", name, n, series.errors.sum(),
+				n / seconds, series.quantile(0.5), series.quantile(0.9), series.quantile(0.99), series.quantile(0.999),
+				series.max.get() / 1e6));
+	}
+
+	protected Response send(String method, String uri, String cookie, String contentType, byte[] body) {
+		var rq = new HttpRequest(method, URI.create(uri));
+		rq.setHeaderValue("accept-encoding", "gzip");
+		if (cookie != null)
+			rq.setHeaderValue("cookie", cookie);
+		if (body != null) {
+			rq.setHeaderValue("content-type", contentType);
+			rq.setHeaderValue("content-length", String.valueOf(body.length));
+			rq.setBody(Channels.newChannel(new ByteArrayInputStream(body)));
+		}
+		return client.send(rq, rs -> {
+			try (var in = Channels.newInputStream((ReadableByteChannel) rs.getBody())) {
+				in.transferTo(OutputStream.nullOutputStream());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return new Response(rs.getStatus(), rs.getHeaderValue("set-cookie"));
+		});
+	}
+
+	protected void serve(DiFactory diFactory, SSLContext sslContext, InetSocketAddress endpoint, HttpHandler handler) {
+		var s = diFactory.create(diFactory.actualType(HttpServer.class),
+				Map.of("sslContext", sslContext, "endpoint", endpoint, "handler", handler));
+		Thread.ofPlatform().name("load-test-server-" + endpoint.getPort()).daemon().start(s::serve);
+	}
+
+	protected int upload() {
+		var h = ("--" + BOUNDARY + "\r\ncontent-disposition: form-data; name=\"file\"; filename=\"load-"
+				+ uploads.incrementAndGet() + ".bin\"\r\ncontent-type: application/octet-stream\r\n\r\n")
+				.getBytes(StandardCharsets.ISO_8859_1);
+		var e = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+		var bb = new byte[h.length + upload.length + e.length];
+		System.arraycopy(h, 0, bb, 0, h.length);
+		System.arraycopy(upload, 0, bb, h.length, upload.length);
+		System.arraycopy(e, 0, bb, h.length + upload.length, e.length);
+		return send("POST", backendUri + "/api/files/upload", state.cookie,
+				"multipart/form-data; boundary=" + BOUNDARY, bb).status();
+	}
+
+	public record Options(String mode, double rate, Duration duration, Duration warmup, Map<String, Integer> mix,
+			int port, int uploadSize, int maxInFlight, boolean metrics, long seed) {
+
+		public static Options parse(String[] args) {
+			var m = new HashMap<String, String>();
+			for (var i = 0; i < args.length; i += 2) {
+				if (!args[i].startsWith("--") || i + 1 == args.length)
+					throw new IllegalArgumentException("Expected --name value pairs: " + Arrays.toString(args));
+				m.put(args[i].substring(2), args[i + 1]);
+			}
+			var x = new LinkedHashMap<String, Integer>();
+			for (var y : m.getOrDefault("mix", "page:60,media:30,login:5,upload:5").split(",")) {
+				var z = y.split(":");
+				x.put(z[0].trim(), Integer.parseInt(z[1].trim()));
+			}
+			return new Options(m.getOrDefault("mode", "direct"), Double.parseDouble(m.getOrDefault("rate", "100")),
+					Duration.parse(m.getOrDefault("duration", "PT30S")),
+					Duration.parse(m.getOrDefault("warmup", "PT5S")), x,
+					Integer.parseInt(m.getOrDefault("port", "18443")),
+					Integer.parseInt(m.getOrDefault("upload-size", "65536")),
+					Integer.parseInt(m.getOrDefault("max-in-flight", "10000")),
+					Boolean.parseBoolean(m.getOrDefault("metrics", "false")),
+					Long.parseLong(m.getOrDefault("seed", "1")));
+		}
+	}
+
+	protected record Response(int status, String cookie) {
+	}
+
+	protected static class Series {
+
+		protected final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+		protected final LongAdder count = new LongAdder();
+
+		protected final LongAdder errors = new LongAdder();
+
+		protected final AtomicLong max = new AtomicLong();
+
+		protected final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		protected void add(Series series) {
+			for (var i = 0; i < BUCKETS; i++)
+				buckets.addAndGet(i, series.buckets.get(i));
+			count.add(series.count.sum());
+			errors.add(series.errors.sum());
+			max.accumulateAndGet(series.max.get(), Math::max);
+		}
+
+		protected double quantile(double quantile) {
+			var n = count.sum() - errors.sum();
+			if (n <= 0)
+				return 0;
+			var r = (long) Math.ceil(quantile * n);
+			var c = 0L;
+			for (var i = 0; i < BUCKETS; i++) {
+				c += buckets.get(i);
+				if (c >= r)
+					return (i + 1 < BUCKETS ? (RequestMetrics.lowerBound(i) + RequestMetrics.lowerBound(i + 1)) / 2
+							: RequestMetrics.lowerBound(i)) / 1e6;
+			}
+			return max.get() / 1e6;
+		}
+
+		protected void record(int status, long nanos) {
+			count.increment();
+			statuses.computeIfAbsent(status, _ -> new LongAdder()).increment();
+			if (status < 200 || status >= 400) {
+				errors.increment();
+				return;
+			}
+			buckets.incrementAndGet(RequestMetrics.bucket(nanos));
+			max.accumulateAndGet(nanos, Math::max);
+		}
+	}
+}
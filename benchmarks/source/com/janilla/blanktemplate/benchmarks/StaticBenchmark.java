@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.janilla.blanktemplate.backend.FileSender;
+
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class StaticBenchmark {
+
+	protected static final String MEDIA_FILE = "/api/media/file/benchmark.bin";
+
+	@Param({ "identity", "gzip" })
+	public String encoding;
+
+	protected String download;
+
+	protected String entityTag;
+
+	protected String resource;
+
+	protected FullstackState state;
+
+	@Setup(Level.Trial)
+	public void setUp(FullstackState state) throws IOException {
+		this.state = state;
+		var f = state.fullstack.frontend();
+		download = f.downloadHandlerFactory().paths().stream().filter(x -> x.endsWith(".css")).sorted().findFirst()
+				.orElseGet(() -> f.downloadHandlerFactory().paths().stream().sorted().findFirst().orElseThrow());
+		resource = f.routeTable().routes().stream()
+				.filter(x -> "resource".equals(x.target()) && x.template().endsWith(".js"))
+				.map(x -> x.template()).min(Comparator.naturalOrder()).orElseThrow();
+		var p = state.backend().settings().get().uploadDirectory().resolve("benchmark.bin");
+		entityTag = FileSender.entityTag(Files.readAttributes(p, BasicFileAttributes.class));
+	}
+
+	@Benchmark
+	public long download() {
+		return state.get(download, "accept-encoding", encoding);
+	}
+
+	@Benchmark
+	public long mediaFile() {
+		return state.get(MEDIA_FILE, "accept-encoding", encoding);
+	}
+
+	@Benchmark
+	public long mediaNotModified() {
+		return state.get(MEDIA_FILE, "accept-encoding", encoding, "if-none-match", entityTag);
+	}
+
+	@Benchmark
+	public long mediaRange() {
+		return state.get(MEDIA_FILE, "accept-encoding", encoding, "range", "bytes=0-65535");
+	}
+
+	@Benchmark
+	public long resource() {
+		return state.get(resource, "accept-encoding", encoding);
+	}
+}
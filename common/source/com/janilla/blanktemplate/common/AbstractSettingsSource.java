@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.janilla.ioc.DiFactory;
+
+public abstract class AbstractSettingsSource<S> {
+
+	protected static final System.Logger LOGGER = System.getLogger(AbstractSettingsSource.class.getName());
+
+	protected final Properties configuration;
+
+	protected final Path configurationFile;
+
+	protected final String configurationKey;
+
+	protected final DiFactory diFactory;
+
+	protected final AtomicLong generation = new AtomicLong();
+
+	protected volatile S settings;
+
+	protected AbstractSettingsSource(Properties configuration, Path configurationFile, String configurationKey,
+			DiFactory diFactory) {
+		this.configuration = configuration;
+		this.configurationFile = configurationFile;
+		this.configurationKey = configurationKey;
+		this.diFactory = diFactory;
+		settings = settings(configuration, configurationKey);
+		if (configurationFile != null)
+			Thread.ofVirtual().name("settings-source").start(this::watch);
+	}
+
+	public S get() {
+		return settings;
+	}
+
+	public long generation() {
+		return generation.get();
+	}
+
+	public void reload() {
+		var c = diFactory.create(diFactory.actualType(Properties.class),
+				Collections.singletonMap("file", configurationFile));
+		for (var x : restartKeys()) {
+			var k = configurationKey + "." + x;
+			var v = configuration.getProperty(k);
+			if (Objects.equals(c.getProperty(k), v))
+				continue;
+			LOGGER.log(Level.WARNING, "{0} changed, restart to apply it", k);
+			if (v != null)
+				c.setProperty(k, v);
+			else
+				c.remove(k);
+		}
+		settings = settings(c, configurationKey);
+		generation.incrementAndGet();
+	}
+
+	protected abstract List<String> restartKeys();
+
+	protected abstract S settings(Properties configuration, String configurationKey);
+
+	protected void watch() {
+		var d = configurationFile.toAbsolutePath().getParent();
+		var n = configurationFile.getFileName();
+		try (var s = d.getFileSystem().newWatchService()) {
+			d.register(s, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			for (;;) {
+				var k = s.take();
+				var r = k.pollEvents().stream().anyMatch(x -> n.equals(x.context()));
+				if (r)
+					try {
+						reload();
+					} catch (RuntimeException e) {
+						LOGGER.log(Level.WARNING, "Cannot reload " + configurationFile + ", keeping previous settings",
+								e);
+					}
+				if (!k.reset())
+					break;
+			}
+		} catch (IOException | UnsupportedOperationException e) {
+			LOGGER.log(Level.WARNING, "Cannot watch " + configurationFile + ", changes require a restart", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
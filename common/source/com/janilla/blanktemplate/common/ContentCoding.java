@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+public class ContentCoding {
+
+	public static String negotiate(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isEmpty())
+			return null;
+		var g = -1.0;
+		var d = -1.0;
+		var a = -1.0;
+		for (var x : acceptEncoding.split(",")) {
+			var pp = x.split(";");
+			var q = 1.0;
+			for (var i = 1; i < pp.length; i++) {
+				var p = pp[i].trim();
+				if (p.startsWith("q="))
+					try {
+						q = Double.parseDouble(p.substring(2));
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+			}
+			switch (pp[0].trim().toLowerCase(Locale.ROOT)) {
+			case "gzip", "x-gzip" -> g = q;
+			case "deflate" -> d = q;
+			case "*" -> a = q;
+			}
+		}
+		if (g < 0)
+			g = a;
+		if (d < 0)
+			d = a;
+		return g > 0 && g >= d ? "gzip" : d > 0 ? "deflate" : null;
+	}
+
+	public static String contentType(Path file) {
+		var n = file.getFileName().toString();
+		var i = n.lastIndexOf('.');
+		var e = i != -1 ? n.substring(i + 1).toLowerCase(Locale.ROOT) : null;
+		return e != null ? switch (e) {
+		case "css" -> "text/css";
+		case "html" -> "text/html";
+		case "ico" -> "image/x-icon";
+		case "js" -> "text/javascript";
+		case "json" -> "application/json";
+		case "svg" -> "image/svg+xml";
+		case "ttf" -> "font/ttf";
+		case "otf" -> "font/otf";
+		case "woff" -> "font/woff";
+		case "woff2" -> "font/woff2";
+		default -> null;
+		} : null;
+	}
+
+	public static boolean compressible(String contentType) {
+		if (contentType == null)
+			return false;
+		var t = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+		return t.startsWith("text/") || t.equals("application/json") || t.equals("application/javascript")
+				|| t.equals("application/xml") || t.equals("image/svg+xml") || t.equals("font/ttf")
+				|| t.equals("font/otf");
+	}
+
+	public static Deflater deflater(String coding, int level) {
+		return switch (coding) {
+		case "gzip" -> new Deflater(level, true);
+		case "deflate" -> new Deflater(level);
+		default -> throw new IllegalArgumentException(coding);
+		};
+	}
+
+	public static DeflaterOutputStream stream(OutputStream output, String coding, int level) {
+		return stream(output, coding, deflater(coding, level));
+	}
+
+	public static DeflaterOutputStream stream(OutputStream output, String coding, Deflater deflater) {
+		try {
+			return switch (coding) {
+			case "gzip" -> new GzipEncoder(output, deflater);
+			case "deflate" -> new Encoder(output, deflater);
+			default -> throw new IllegalArgumentException(coding);
+			};
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static byte[] encode(byte[] bytes, String coding) {
+		var o = new ByteArrayOutputStream(bytes.length / 2 + 64);
+		try (var s = stream(o, coding, Deflater.BEST_COMPRESSION)) {
+			s.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return o.toByteArray();
+	}
+
+	protected static class Encoder extends DeflaterOutputStream {
+
+		protected boolean ended;
+
+		public Encoder(OutputStream output, Deflater deflater) {
+			super(output, deflater, 8192, true);
+		}
+
+		@Override
+		public void finish() throws IOException {
+			if (ended)
+				return;
+			try {
+				super.finish();
+				trailer();
+			} finally {
+				ended = true;
+				def.end();
+			}
+		}
+
+		protected void trailer() throws IOException {
+		}
+	}
+
+	protected static class GzipEncoder extends Encoder {
+
+		protected static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+		protected final CRC32 crc = new CRC32();
+
+		public GzipEncoder(OutputStream output, Deflater deflater) throws IOException {
+			super(output, deflater);
+			output.write(HEADER);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			super.write(b, off, len);
+			crc.update(b, off, len);
+		}
+
+		@Override
+		protected void trailer() throws IOException {
+			var c = (int) crc.getValue();
+			var n = (int) def.getBytesRead();
+			out.write(new byte[] { (byte) c, (byte) (c >> 8), (byte) (c >> 16), (byte) (c >> 24), (byte) n,
+					(byte) (n >> 8), (byte) (n >> 16), (byte) (n >> 24) });
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import com.janilla.http.HttpExchange;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Category({ "Janilla", "Blank Template" })
+@Description("Handling of an HTTP exchange, from admission to the last byte written")
+@Label("HTTP Exchange")
+@StackTrace(false)
+@Threshold("20 ms")
+public class ExchangeEvent extends Event {
+
+	@Label("Method")
+	protected String method;
+
+	@Label("Path")
+	protected String path;
+
+	@DataAmount
+	@Label("Request Size")
+	protected long requestSize;
+
+	@DataAmount
+	@Label("Response Size")
+	protected long responseSize;
+
+	@Label("Route")
+	protected String route;
+
+	@Label("Status")
+	protected int status;
+
+	public void end(HttpExchange exchange, RouteTable.Route route, int status) {
+		end();
+		if (!shouldCommit())
+			return;
+		var rq = exchange.request();
+		method = rq.getMethod();
+		path = rq.getPath();
+		this.route = route != null ? route.template() : null;
+		this.status = status != 0 ? status : 200;
+		requestSize = RequestMetrics.requestSize(exchange);
+		responseSize = RequestMetrics.responseSize(exchange);
+		commit();
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.janilla.http.HttpExchange;
+import com.janilla.web.Error;
+
+public class RequestMetrics {
+
+	protected static final int SUB_BITS = 3;
+
+	protected static final int BUCKETS = (64 - SUB_BITS) << SUB_BITS;
+
+	protected static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	protected static final String UNMATCHED = "unmatched";
+
+	public static int bucket(long nanos) {
+		if (nanos < 1 << SUB_BITS)
+			return (int) Math.max(nanos, 0);
+		var e = 63 - Long.numberOfLeadingZeros(nanos);
+		var m = (int) (nanos >>> (e - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+		return ((e - SUB_BITS + 1) << SUB_BITS) + m;
+	}
+
+	public static long lowerBound(int bucket) {
+		if (bucket < 1 << SUB_BITS)
+			return bucket;
+		var e = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+		var m = bucket & ((1 << SUB_BITS) - 1);
+		return (long) ((1 << SUB_BITS) + m) << (e - SUB_BITS);
+	}
+
+	public static void count(HttpExchange exchange) {
+		var rq = exchange.request();
+		if (rq.getBody() != null && !(rq.getBody() instanceof CountingChannel))
+			rq.setBody(new CountingChannel(rq.getBody()));
+		var rs = exchange.response();
+		if (rs.getBody() != null && !(rs.getBody() instanceof CountingChannel))
+			rs.setBody(new CountingChannel(rs.getBody()));
+	}
+
+	public static long requestSize(HttpExchange exchange) {
+		var rq = exchange.request();
+		return rq.getBody() instanceof CountingChannel c ? c.count() : length(rq.getHeaderValue("content-length"));
+	}
+
+	public static long responseSize(HttpExchange exchange) {
+		var rs = exchange.response();
+		return rs.getBody() instanceof CountingChannel c ? c.count() : length(rs.getHeaderValue("content-length"));
+	}
+
+	public static long length(String contentLength) {
+		if (contentLength == null)
+			return 0;
+		try {
+			return Long.parseLong(contentLength.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	public static int status(RuntimeException exception) {
+		for (Throwable x = exception; x != null; x = x.getCause()) {
+			var a = x.getClass().getAnnotation(Error.class);
+			if (a != null)
+				return a.code();
+		}
+		return 500;
+	}
+
+	protected final Map<Key, Series> series = new ConcurrentHashMap<>();
+
+	public void record(HttpExchange exchange, RouteTable.Route route, int status, long nanos) {
+		record(exchange.request().getMethod(), route != null ? route.template() : UNMATCHED,
+				status != 0 ? status : 200, nanos, requestSize(exchange), responseSize(exchange));
+	}
+
+	public void record(String method, String route, int status, long nanos, long bytesIn, long bytesOut) {
+		var k = new Key(method, route, status);
+		var s = series.get(k);
+		if (s == null)
+			s = series.computeIfAbsent(k, _ -> new Series());
+		s.count.increment();
+		s.sum.add(nanos);
+		if (bytesIn > 0)
+			s.bytesIn.add(bytesIn);
+		if (bytesOut > 0)
+			s.bytesOut.add(bytesOut);
+		s.buckets.incrementAndGet(bucket(nanos));
+	}
+
+	public String scrape() {
+		var b = new StringBuilder();
+		var kk = series.keySet().stream().sorted(Comparator.comparing(Key::route).thenComparing(Key::method)
+				.thenComparingInt(Key::status)).toList();
+		b.append("# HELP http_server_requests_seconds Request latency by method, route and status.\n");
+		b.append("# TYPE http_server_requests_seconds summary\n");
+		for (var k : kk) {
+			var s = series.get(k);
+			var l = labels(k);
+			var cc = new long[BUCKETS];
+			var n = 0L;
+			for (var i = 0; i < BUCKETS; i++)
+				n += cc[i] = s.buckets.get(i);
+			for (var q : QUANTILES)
+				b.append("http_server_requests_seconds{").append(l).append(",quantile=\"").append(q).append("\"} ")
+						.append(seconds(quantile(cc, n, q))).append('\n');
+			b.append("http_server_requests_seconds_sum{").append(l).append("} ").append(seconds(s.sum.sum()))
+					.append('\n');
+			b.append("http_server_requests_seconds_count{").append(l).append("} ").append(s.count.sum())
+					.append('\n');
+		}
+		counter(b, "http_server_request_bytes_total", "Request body bytes by method, route and status.", kk,
+				x -> x.bytesIn);
+		counter(b, "http_server_response_bytes_total", "Response body bytes by method, route and status.", kk,
+				x -> x.bytesOut);
+		return b.toString();
+	}
+
+	protected void counter(StringBuilder builder, String name, String help, Iterable<Key> keys,
+			Function<Series, LongAdder> adder) {
+		builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		builder.append("# TYPE ").append(name).append(" counter\n");
+		for (var k : keys)
+			builder.append(name).append('{').append(labels(k)).append("} ").append(adder.apply(series.get(k)).sum())
+					.append('\n');
+	}
+
+	protected String labels(Key key) {
+		return "method=\"" + escape(key.method()) + "\",route=\"" + escape(key.route()) + "\",status=\""
+				+ key.status() + "\"";
+	}
+
+	protected static String escape(String string) {
+		return string.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	protected static long quantile(long[] counts, long total, double quantile) {
+		if (total == 0)
+			return 0;
+		var r = (long) Math.ceil(quantile * total);
+		var c = 0L;
+		for (var i = 0; i < counts.length; i++) {
+			c += counts[i];
+			if (c >= r)
+				return (lowerBound(i) + (i + 1 < BUCKETS ? lowerBound(i + 1) : lowerBound(i))) / 2;
+		}
+		return lowerBound(counts.length - 1);
+	}
+
+	protected static String seconds(long nanos) {
+		return Double.toString(nanos / 1e9);
+	}
+
+	protected record Key(String method, String route, int status) {
+	}
+
+	protected static class Series {
+
+		protected final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+		protected final LongAdder bytesIn = new LongAdder();
+
+		protected final LongAdder bytesOut = new LongAdder();
+
+		protected final LongAdder count = new LongAdder();
+
+		protected final LongAdder sum = new LongAdder();
+	}
+}
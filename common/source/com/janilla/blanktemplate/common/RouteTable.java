@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import com.janilla.http.HttpHandler;
+import com.janilla.http.HttpHandlerFactory;
+import com.janilla.http.HttpRequest;
+import com.janilla.web.Handle;
+import com.janilla.web.Invocable;
+
+public class RouteTable {
+
+	public static final ScopedValue<Route> ROUTE = ScopedValue.newInstance();
+
+	protected static final Pattern WILDCARD = Pattern.compile("[()\\[\\]{}*+?|\\\\^$]");
+
+	protected final Map<Route, HttpHandlerFactory> factories = new IdentityHashMap<>();
+
+	protected final Map<Route, Invocable> invocables = new IdentityHashMap<>();
+
+	protected final Node root = new Node();
+
+	protected final List<Route> routes = new ArrayList<>();
+
+	public void add(String method, String template, String target) {
+		add(method, template, target, null);
+	}
+
+	public void add(String method, String template, String target, Invocable invocable) {
+		var r = new Route(method != null && !method.isEmpty() ? method : null, template, target);
+		var m = WILDCARD.matcher(template);
+		var w = m.find();
+		var n = root;
+		var p = w ? template.substring(0, template.lastIndexOf('/', m.start()) + 1) : template;
+		for (var s : p.split("/"))
+			if (!s.isEmpty())
+				n = n.children.computeIfAbsent(s, _ -> new Node());
+		if (w)
+			n.wildcards.add(new Wildcard(r, Pattern.compile(template)));
+		else
+			n.literals.putIfAbsent(r.method(), r);
+		routes.add(r);
+		if (invocable != null)
+			invocables.put(r, invocable);
+	}
+
+	public void addType(Class<?> type) {
+		var h = type.getAnnotation(Handle.class);
+		var p = h != null ? h.path() : "";
+		for (var x : type.getMethods()) {
+			var i = x.getAnnotation(Handle.class);
+			if (i != null && !Modifier.isStatic(x.getModifiers()) && !x.isBridge())
+				add(i.method(), path(p, i.path()), target(type, x), new Invocable(type, x));
+		}
+	}
+
+	public void compile(Function<Invocable, HttpHandlerFactory> compiler) {
+		for (var x : invocables.entrySet())
+			factories.put(x.getKey(), compiler.apply(x.getValue()));
+	}
+
+	public HttpHandler createHandler(Route route, HttpRequest request) {
+		var f = route != null ? factories.get(route) : null;
+		return f != null ? f.createHandler(request) : null;
+	}
+
+	public Route match(String method, String path) {
+		var nn = new ArrayDeque<Node>();
+		var n = root;
+		nn.push(n);
+		var i = 1;
+		while (i < path.length()) {
+			var j = path.indexOf('/', i);
+			if (j == -1)
+				j = path.length();
+			n = n.children.get(path.substring(i, j));
+			if (n == null)
+				break;
+			nn.push(n);
+			i = j + 1;
+		}
+		if (n != null && (path.length() <= 1 || path.charAt(path.length() - 1) != '/')) {
+			var r = n.literals.get(method);
+			if (r == null)
+				r = n.literals.get(null);
+			if (r != null)
+				return r;
+		}
+		for (var x : nn)
+			for (var y : x.wildcards)
+				if ((y.route().method() == null || y.route().method().equals(method))
+						&& y.pattern().matcher(path).matches())
+					return y.route();
+		return null;
+	}
+
+	public List<Route> routes() {
+		return Collections.unmodifiableList(routes);
+	}
+
+	protected String path(String typePath, String methodPath) {
+		if (methodPath.startsWith("/") || typePath.isEmpty())
+			return methodPath;
+		return methodPath.isEmpty() ? typePath : typePath + "/" + methodPath;
+	}
+
+	protected String target(Class<?> type, Method method) {
+		return type.getSimpleName() + "." + method.getName();
+	}
+
+	public record Route(String method, String template, String target) {
+	}
+
+	protected record Wildcard(Route route, Pattern pattern) {
+	}
+
+	protected static class Node {
+
+		protected final Map<String, Node> children = new HashMap<>();
+
+		protected final Map<String, Route> literals = new HashMap<>();
+
+		protected final List<Wildcard> wildcards = new ArrayList<>();
+	}
+}
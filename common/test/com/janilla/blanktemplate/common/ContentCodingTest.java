@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+class ContentCodingTest {
+
+	static final byte[] BODY = "{\"docs\":[],\"next\":null}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+	static byte[] decode(byte[] bytes, String coding) {
+		try (InputStream x = coding.equals("gzip") ? new GZIPInputStream(new ByteArrayInputStream(bytes))
+				: new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+			return x.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Test
+	void negotiate() {
+		assertNull(ContentCoding.negotiate(null));
+		assertNull(ContentCoding.negotiate(""));
+		assertNull(ContentCoding.negotiate("identity"));
+		assertNull(ContentCoding.negotiate("br"));
+		assertEquals("gzip", ContentCoding.negotiate("gzip"));
+		assertEquals("gzip", ContentCoding.negotiate("x-gzip"));
+		assertEquals("gzip", ContentCoding.negotiate("GZIP"));
+		assertEquals("deflate", ContentCoding.negotiate("deflate"));
+		assertEquals("gzip", ContentCoding.negotiate("gzip, deflate, br"));
+		assertEquals("gzip", ContentCoding.negotiate("deflate, gzip"));
+		assertEquals("gzip", ContentCoding.negotiate("*"));
+	}
+
+	@Test
+	void quality() {
+		assertEquals("deflate", ContentCoding.negotiate("gzip;q=0.5, deflate"));
+		assertEquals("gzip", ContentCoding.negotiate("gzip ; q=0.8, deflate;q=0.8"));
+		assertEquals("deflate", ContentCoding.negotiate("gzip;q=0, *"));
+		assertEquals("gzip", ContentCoding.negotiate("deflate;q=0, *;q=0.1"));
+		assertNull(ContentCoding.negotiate("gzip;q=0"));
+		assertNull(ContentCoding.negotiate("*;q=0"));
+		assertNull(ContentCoding.negotiate("gzip;q=x"));
+	}
+
+	@Test
+	void contentType() {
+		assertEquals("text/css", ContentCoding.contentType(Path.of("/style.css")));
+		assertEquals("font/woff2", ContentCoding.contentType(Path.of("fonts", "Geist.WOFF2")));
+		assertNull(ContentCoding.contentType(Path.of("README")));
+		assertNull(ContentCoding.contentType(Path.of("image.png")));
+	}
+
+	@Test
+	void encode() {
+		for (var c : new String[] { "gzip", "deflate" }) {
+			var bb = ContentCoding.encode(BODY, c);
+			assertTrue(bb.length < BODY.length);
+			assertArrayEquals(BODY, decode(bb, c));
+		}
+	}
+
+	@Test
+	void end() throws IOException {
+		for (var c : new String[] { "gzip", "deflate" }) {
+			var d = ContentCoding.deflater(c, Deflater.DEFAULT_COMPRESSION);
+			var s = ContentCoding.stream(OutputStream.nullOutputStream(), c, d);
+			s.write(BODY);
+			s.finish();
+			assertThrows(NullPointerException.class, d::getBytesRead);
+		}
+	}
+}
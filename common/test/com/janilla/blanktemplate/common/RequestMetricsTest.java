@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import org.junit.jupiter.api.Test;
+
+import com.janilla.web.Error;
+
+class RequestMetricsTest {
+
+	static final long[] SAMPLES = { 8, 9, 15, 16, 17, 100, 1_000, 4_095, 4_096, 123_456_789, 1L << 40,
+			(1L << 40) - 1, Long.MAX_VALUE / 3, Long.MAX_VALUE };
+
+	@Test
+	void exact() {
+		for (var i = 0; i < 8; i++) {
+			assertEquals(i, RequestMetrics.bucket(i));
+			assertEquals(i, RequestMetrics.lowerBound(i));
+		}
+		assertEquals(0, RequestMetrics.bucket(-1));
+	}
+
+	@Test
+	void bounds() {
+		for (var x : SAMPLES) {
+			var b = RequestMetrics.bucket(x);
+			assertTrue(RequestMetrics.lowerBound(b) <= x, x + " below bucket " + b);
+			if (b + 1 < RequestMetrics.BUCKETS)
+				assertTrue(x < RequestMetrics.lowerBound(b + 1), x + " above bucket " + b);
+			assertTrue(x - RequestMetrics.lowerBound(b) <= x / 8, x + " too far from bucket " + b);
+		}
+	}
+
+	@Test
+	void monotonic() {
+		for (var i = 1; i < RequestMetrics.BUCKETS; i++) {
+			assertTrue(RequestMetrics.lowerBound(i - 1) < RequestMetrics.lowerBound(i));
+			assertEquals(i, RequestMetrics.bucket(RequestMetrics.lowerBound(i)));
+			assertEquals(i - 1, RequestMetrics.bucket(RequestMetrics.lowerBound(i) - 1));
+		}
+		assertEquals(RequestMetrics.BUCKETS - 1, RequestMetrics.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	void quantile() {
+		var cc = new long[RequestMetrics.BUCKETS];
+		for (var i = 1; i <= 1000; i++)
+			cc[RequestMetrics.bucket(i * 1_000_000L)]++;
+		for (var q : new double[] { 0.5, 0.9, 0.99 }) {
+			var e = (long) (q * 1000) * 1_000_000L;
+			var a = RequestMetrics.quantile(cc, 1000, q);
+			assertTrue(Math.abs(a - e) <= e / 8, q + ": " + a);
+		}
+		assertEquals(0, RequestMetrics.quantile(cc, 0, 0.5));
+	}
+
+	@Test
+	void scrape() {
+		var m = new RequestMetrics();
+		m.record("GET", "/api/posts", 200, 2_000_000, 0, 300);
+		m.record("GET", "/api/posts", 200, 4_000_000, 0, 200);
+		m.record("POST", "/api/posts", 201, 1_000_000, 50, 10);
+		var s = m.scrape();
+		var g = "{method=\"GET\",route=\"/api/posts\",status=\"200\"} ";
+		var p = "{method=\"POST\",route=\"/api/posts\",status=\"201\"} ";
+		assertTrue(s.contains("http_server_requests_seconds_count" + g + "2\n"), s);
+		assertTrue(s.contains("http_server_requests_seconds_sum" + g + "0.006\n"), s);
+		assertTrue(s.contains("http_server_request_bytes_total" + p + "50\n"), s);
+		assertTrue(s.contains("http_server_response_bytes_total" + g + "500\n"), s);
+	}
+
+	@Test
+	void status() {
+		assertEquals(500, RequestMetrics.status(new RuntimeException()));
+		assertEquals(418, RequestMetrics.status(new TeapotException()));
+		assertEquals(418, RequestMetrics.status(new RuntimeException(new TeapotException())));
+	}
+
+	@Test
+	void counting() throws IOException {
+		var o = new ByteArrayOutputStream();
+		var w = new CountingChannel(Channels.newChannel(o));
+		w.write(ByteBuffer.wrap(new byte[100]));
+		w.write(ByteBuffer.wrap(new byte[23]));
+		assertEquals(123, w.count());
+		assertEquals(123, o.size());
+
+		var r = new CountingChannel(Channels.newChannel(new ByteArrayInputStream(new byte[5000])));
+		var b = ByteBuffer.allocate(1024);
+		while (r.read(b.clear()) != -1)
+			;
+		assertEquals(5000, r.count());
+	}
+
+	@Error(code = 418, text = "I'm a teapot")
+	static class TeapotException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -25,8 +25,10 @@
 package com.janilla.blanktemplate.frontend;
 
 import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import com.janilla.http.HttpClient;
 import com.janilla.http.HttpCookie;
@@ -34,22 +36,70 @@ import com.janilla.java.UriQueryBuilder;
 
 public class BlankDataFetching {
 
-	protected final String apiUrl;
-
 	protected final HttpClient httpClient;
 
-	public BlankDataFetching(Properties configuration, String configurationKey, HttpClient httpClient) {
-		apiUrl = configuration.getProperty(configurationKey + ".api.url");
+	protected final SettingsSource settings;
+
+	public BlankDataFetching(SettingsSource settings, HttpClient httpClient) {
+		this.settings = settings;
 		this.httpClient = httpClient;
 	}
 
 	public Object sessionUser(HttpCookie token) {
-		return httpClient.getJson(URI.create(apiUrl + "/users/me"), token != null ? token.format() : null);
+		return getJson(URI.create(settings.get().apiUrl() + "/users/me"), token != null ? token.format() : null);
 	}
 
 	public List<?> users(Long skip, Long limit) {
-		return (List<?>) httpClient.getJson(URI
-				.create(apiUrl + "/users?" + new UriQueryBuilder().append("skip", skip != null ? skip.toString() : null)
-						.append("limit", limit != null ? limit.toString() : null)));
+		return (List<?>) getJson(URI.create(settings.get().apiUrl() + "/users?"
+				+ new UriQueryBuilder().append("skip", skip != null ? skip.toString() : null).append("limit",
+						limit != null ? limit.toString() : null)),
+				null);
+	}
+
+	public Iterator<Object> users(String sort, int pageSize) {
+		return cursor("/users/cursor", sort, pageSize);
+	}
+
+	protected Object getJson(URI uri, String cookie) {
+		var e = new FetchEvent();
+		e.begin();
+		Object o = null;
+		try {
+			o = cookie != null ? httpClient.getJson(uri, cookie) : httpClient.getJson(uri);
+			return o;
+		} finally {
+			e.end(uri, o);
+		}
+	}
+
+	protected Iterator<Object> cursor(String path, String sort, int pageSize) {
+		return new Iterator<>() {
+
+			private Iterator<?> page;
+
+			private String next;
+
+			private boolean last;
+
+			@Override
+			public boolean hasNext() {
+				while ((page == null || !page.hasNext()) && !last) {
+					var m = (Map<?, ?>) getJson(URI.create(settings.get().apiUrl() + path + "?"
+							+ new UriQueryBuilder().append("sort", sort).append("after", next)
+									.append("limit", String.valueOf(pageSize))), null);
+					page = ((List<?>) m.get("docs")).iterator();
+					next = (String) m.get("next");
+					last = next == null;
+				}
+				return page != null && page.hasNext();
+			}
+
+			@Override
+			public Object next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return page.next();
+			}
+		};
 	}
 }
@@ -28,18 +28,29 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Modifier;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.net.ssl.SSLContext;
 
+import com.janilla.blanktemplate.common.ExchangeEvent;
+import com.janilla.blanktemplate.common.ForbiddenException;
+import com.janilla.blanktemplate.common.RequestMetrics;
+import com.janilla.blanktemplate.common.RequestScope;
+import com.janilla.blanktemplate.common.RouteTable;
 import com.janilla.http.HttpClient;
 import com.janilla.http.HttpExchange;
 import com.janilla.http.HttpHandler;
@@ -48,7 +59,9 @@ import com.janilla.http.HttpServer;
 import com.janilla.ioc.DiFactory;
 import com.janilla.java.Java;
 import com.janilla.web.ApplicationHandlerFactory;
+import com.janilla.web.Handle;
 import com.janilla.web.Invocable;
+import com.janilla.web.InvocationHandlerFactory;
 import com.janilla.web.InvocationResolver;
 import com.janilla.web.NotFoundException;
 import com.janilla.web.RenderableFactory;
@@ -56,7 +69,8 @@ import com.janilla.web.ResourceMap;
 
 public class BlankFrontend {
 
-	public static final String[] DI_PACKAGES = { "com.janilla.web", "com.janilla.blanktemplate.frontend" };
+	public static final String[] DI_PACKAGES = { "com.janilla.web", "com.janilla.blanktemplate.common",
+			"com.janilla.blanktemplate.frontend" };
 
 	public static final ScopedValue<BlankFrontend> INSTANCE = ScopedValue.newInstance();
 
@@ -112,6 +126,8 @@ public class BlankFrontend {
 
 	protected final HttpHandlerFactory handlerFactory;
 
+	protected final CompressedResourceHandlerFactory compressedResourceHandlerFactory;
+
 	protected final Properties configuration;
 
 	protected final Path configurationFile;
@@ -122,18 +138,30 @@ public class BlankFrontend {
 
 	protected final DiFactory diFactory;
 
+	protected final DownloadHandlerFactory downloadHandlerFactory;
+
 	protected final HttpHandler handler;
 
 	protected final HttpClient httpClient;
 
 	protected final BlankIndexFactory indexFactory;
 
+	protected final Map<Class<?>, Object> instances = new ConcurrentHashMap<>();
+
+	protected final Map<Class<?>, Class<?>> instanceTypes;
+
 	protected final InvocationResolver invocationResolver;
 
 	protected final RenderableFactory renderableFactory;
 
+	protected final RequestMetrics requestMetrics;
+
 	protected final ResourceMap resourceMap;
 
+	protected final RouteTable routeTable;
+
+	protected final SettingsSource settings;
+
 	public BlankFrontend(DiFactory diFactory, Path configurationFile) {
 		this(diFactory, configurationFile, "blank-template");
 	}
@@ -145,6 +173,7 @@ public class BlankFrontend {
 		diFactory.context(this);
 		configuration = diFactory.create(diFactory.actualType(Properties.class),
 				Collections.singletonMap("file", configurationFile));
+		settings = diFactory.create(diFactory.actualType(SettingsSource.class));
 
 		httpClient = diFactory.create(diFactory.actualType(HttpClient.class),
 				Map.of("sslContext", sslContext(configuration, configurationKey)));
@@ -153,6 +182,10 @@ public class BlankFrontend {
 		resourceMap = diFactory.create(diFactory.actualType(ResourceMap.class), Map.of("paths", resourcePaths()));
 		indexFactory = diFactory.create(diFactory.actualType(BlankIndexFactory.class));
 
+		instanceTypes = diFactory.types().stream()
+				.filter(x -> !x.isInterface() && !Modifier.isAbstract(x.getModifiers())
+						&& Arrays.stream(x.getMethods()).anyMatch(y -> y.isAnnotationPresent(Handle.class)))
+				.collect(Collectors.toMap(x -> x, x -> diFactory.actualType(x)));
 		invocationResolver = diFactory.create(diFactory.actualType(InvocationResolver.class),
 				Map.of("invocables",
 						diFactory.types().stream()
@@ -160,21 +193,35 @@ public class BlankFrontend {
 										.filter(y -> !Modifier.isStatic(y.getModifiers()) && !y.isBridge())
 										.map(y -> new Invocable(x, y)))
 								.toList(),
-						"instanceResolver", (Function<Class<?>, Object>) x -> {
-							var y = diFactory.context();
-//							IO.println("x=" + x + ", y=" + y);
-							return x.isAssignableFrom(y.getClass()) ? diFactory.context()
-									: diFactory.create(diFactory.actualType(x));
-						}));
+						"instanceResolver", (Function<Class<?>, Object>) this::instance));
 		renderableFactory = diFactory.create(diFactory.actualType(RenderableFactory.class));
+		downloadHandlerFactory = diFactory.create(diFactory.actualType(DownloadHandlerFactory.class));
+		compressedResourceHandlerFactory = diFactory.create(
+				diFactory.actualType(CompressedResourceHandlerFactory.class), Map.of("paths", resourcePaths()));
 		handlerFactory = diFactory.create(diFactory.actualType(ApplicationHandlerFactory.class));
 		handler = this::handle;
+
+		routeTable = diFactory.create(diFactory.actualType(RouteTable.class));
+		instanceTypes.keySet().stream().sorted(Comparator.comparing(Class::getName)).forEach(routeTable::addType);
+		resourcePaths()
+				.forEach((k, v) -> v.forEach(x -> routeTable.add("GET", k + "/" + x.getFileName(), "resource")));
+		downloadHandlerFactory.paths().stream().sorted().forEach(x -> routeTable.add("GET", x, "download"));
+		routeTable.compile(this::routeFactory);
+		requestMetrics = diFactory.create(diFactory.actualType(RequestMetrics.class));
+	}
+
+	public CompressedResourceHandlerFactory compressedResourceHandlerFactory() {
+		return compressedResourceHandlerFactory;
 	}
 
 	public Properties configuration() {
 		return configuration;
 	}
 
+	public Path configurationFile() {
+		return configurationFile;
+	}
+
 	public String configurationKey() {
 		return configurationKey;
 	}
@@ -187,6 +234,10 @@ public class BlankFrontend {
 		return diFactory;
 	}
 
+	public DownloadHandlerFactory downloadHandlerFactory() {
+		return downloadHandlerFactory;
+	}
+
 	public HttpHandler handler() {
 		return handler;
 	}
@@ -207,20 +258,98 @@ public class BlankFrontend {
 		return renderableFactory;
 	}
 
+	public RequestMetrics requestMetrics() {
+		return requestMetrics;
+	}
+
 	public ResourceMap resourceMap() {
 		return resourceMap;
 	}
 
+	public RouteTable routeTable() {
+		return routeTable;
+	}
+
+	public SettingsSource settings() {
+		return settings;
+	}
+
+	@Handle(method = "GET", path = "/metrics")
+	public void metrics(HttpExchange exchange) throws IOException {
+		requireAdmin(exchange);
+		var response = exchange.response();
+		var bb = requestMetrics.scrape().getBytes(StandardCharsets.UTF_8);
+		response.setStatus(200);
+		response.setHeaderValue("cache-control", "no-store");
+		response.setHeaderValue("content-type", "text/plain; version=0.0.4; charset=utf-8");
+		response.setHeaderValue("content-length", String.valueOf(bb.length));
+		var b = ByteBuffer.wrap(bb);
+		var c = (WritableByteChannel) response.getBody();
+		while (b.hasRemaining())
+			c.write(b);
+	}
+
+	protected void requireAdmin(HttpExchange exchange) {
+		var t = exchange instanceof BlankFrontendHttpExchange x ? x.tokenCookie() : null;
+		var u = t != null ? dataFetching.sessionUser(t) : null;
+		if (!(u instanceof Map<?, ?> m && m.get("roles") instanceof List<?> rr && rr.contains("ADMIN")))
+			throw new ForbiddenException("Admin role required");
+	}
+
 	protected boolean handle(HttpExchange exchange) {
-		return ScopedValue.where(INSTANCE, this).call(() -> {
-			var h = handlerFactory
-					.createHandler(exchange.exception() != null ? exchange.exception() : exchange.request());
-			if (h == null)
-				throw new NotFoundException(exchange.request().getMethod() + " " + exchange.request().getTarget());
-			return h.handle(exchange);
+		if (exchange.exception() != null)
+			return ScopedValue.where(INSTANCE, this).call(() -> dispatch(exchange));
+		var rq = exchange.request();
+		var r = routeTable.match(rq.getMethod(), rq.getPath());
+		return ScopedValue.where(INSTANCE, this).where(RouteTable.ROUTE, r).call(() -> {
+			RequestMetrics.count(exchange);
+			var e = new ExchangeEvent();
+			e.begin();
+			var n = System.nanoTime();
+			var s = 500;
+			try {
+				var h = dispatch(exchange);
+				s = exchange.response().getStatus();
+				return h;
+			} catch (RuntimeException x) {
+				s = RequestMetrics.status(x);
+				throw x;
+			} finally {
+				requestMetrics.record(exchange, r, s, System.nanoTime() - n);
+				e.end(exchange, r, s);
+			}
 		});
 	}
 
+	protected boolean dispatch(HttpExchange exchange) {
+		var x = exchange.exception();
+		var h = x == null ? routeTable.createHandler(RouteTable.ROUTE.get(), exchange.request()) : null;
+		if (h == null)
+			h = handlerFactory.createHandler(x != null ? x : exchange.request());
+		if (h == null)
+			throw new NotFoundException(exchange.request().getMethod() + " " + exchange.request().getTarget());
+		return h.handle(exchange);
+	}
+
+	protected Object instance(Class<?> type) {
+		var c = diFactory.context();
+//		IO.println("type=" + type + ", c=" + c);
+		if (type.isAssignableFrom(c.getClass()))
+			return c;
+		var t = instanceTypes.get(type);
+		if (t == null)
+			t = diFactory.actualType(type);
+		return t.isAnnotationPresent(RequestScope.class) ? diFactory.create(t)
+				: instances.computeIfAbsent(t, x -> diFactory.create(x));
+	}
+
+	protected HttpHandlerFactory routeFactory(Invocable invocable) {
+		var r = diFactory.create(diFactory.actualType(InvocationResolver.class), Map.of("invocables",
+				List.of(invocable), "instanceResolver", (Function<Class<?>, Object>) this::instance));
+		return diFactory.create(diFactory.actualType(InvocationHandlerFactory.class),
+				Map.of("invocationResolver", r, "rootFactory", handlerFactory));
+	}
+
 	protected Map<String, List<Path>> resourcePaths() {
 		var pp1 = Java.getPackagePaths("com.janilla.frontend", false).filter(Files::isRegularFile).toList();
 		var pp2 = Stream.of("com.janilla.frontend.cms", BlankFrontend.class.getPackageName())
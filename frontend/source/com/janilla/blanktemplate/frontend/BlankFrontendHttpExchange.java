@@ -24,8 +24,6 @@
  */
 package com.janilla.blanktemplate.frontend;
 
-import java.util.Properties;
-
 import com.janilla.http.HttpCookie;
 import com.janilla.http.HttpRequest;
 import com.janilla.http.HttpResponse;
@@ -33,19 +31,15 @@ import com.janilla.http.SimpleHttpExchange;
 
 public class BlankFrontendHttpExchange extends SimpleHttpExchange {
 
-	protected final Properties configuration;
-
-	protected final String configurationKey;
+	protected final SettingsSource settings;
 
-	public BlankFrontendHttpExchange(HttpRequest request, HttpResponse response, Properties configuration,
-			String configurationKey) {
+	public BlankFrontendHttpExchange(HttpRequest request, HttpResponse response, SettingsSource settings) {
 		super(request, response);
-		this.configuration = configuration;
-		this.configurationKey = configurationKey;
+		this.settings = settings;
 	}
 
 	public HttpCookie tokenCookie() {
-		var c = configuration.getProperty(configurationKey + ".jwt.cookie");
+		var c = settings.get().jwtCookie();
 		return request.getHeaderValues("cookie").map(HttpCookie::parse).filter(x -> x.name().equals(c)).findFirst()
 				.orElse(null);
 	}
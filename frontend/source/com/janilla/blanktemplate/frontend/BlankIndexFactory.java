@@ -30,7 +30,6 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.stream.Stream;
 
 import com.janilla.blanktemplate.frontend.Index.Template;
@@ -40,29 +39,34 @@ import com.janilla.web.ResourceMap;
 
 public class BlankIndexFactory {
 
-	protected final Properties configuration;
-
 	protected final String configurationKey;
 
 	protected final BlankDataFetching dataFetching;
 
 	protected final ResourceMap resourceMap;
 
+	protected final SettingsSource settings;
+
 	protected Map<String, String> imports;
 
 	protected List<Template> templates;
 
-	public BlankIndexFactory(Properties configuration, String configurationKey, BlankDataFetching dataFetching,
-			ResourceMap resourceMap) {
-		this.configuration = configuration;
+	public BlankIndexFactory(String configurationKey, BlankDataFetching dataFetching, ResourceMap resourceMap,
+			SettingsSource settings) {
 		this.configurationKey = configurationKey;
 		this.dataFetching = dataFetching;
 		this.resourceMap = resourceMap;
+		this.settings = settings;
 	}
 
 	public Index index(HttpExchange exchange) {
-		return new IndexImpl(configuration.getProperty(configurationKey + ".title"), imports(), configurationKey,
-				configuration.getProperty(configurationKey + ".api.url"), state(exchange), templates());
+		var e = new RenderEvent();
+		e.begin();
+		var s = settings.get();
+		var i = new IndexImpl(s.title(), imports(), configurationKey, s.apiUrl(), state(exchange), templates());
+		e.end("index", exchange.request().getPath(),
+				i.templates().stream().mapToLong(x -> x != null ? x.content().length() : 0).sum());
+		return i;
 	}
 
 	public Template blankTemplate(String name) {
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.frontend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.janilla.blanktemplate.common.ContentCoding;
+import com.janilla.http.HttpExchange;
+import com.janilla.http.HttpHandler;
+import com.janilla.http.HttpHandlerFactory;
+import com.janilla.http.HttpRequest;
+
+public class CompressedResourceHandlerFactory implements HttpHandlerFactory {
+
+	protected final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+
+	protected final Map<String, byte[]> encodedBodies = new ConcurrentHashMap<>();
+
+	protected final Map<String, Path> files = new HashMap<>();
+
+	public CompressedResourceHandlerFactory(Map<String, List<Path>> paths) {
+		paths.forEach((k, v) -> v.forEach(x -> {
+			if (ContentCoding.compressible(ContentCoding.contentType(x)))
+				files.putIfAbsent(k + "/" + x.getFileName(), x);
+		}));
+	}
+
+	@Override
+	public HttpHandler createHandler(Object object) {
+		var f = object instanceof HttpRequest r && r.getMethod().equals("GET") ? files.get(r.getPath()) : null;
+		return f != null ? x -> {
+			handle(f, x);
+			return true;
+		} : null;
+	}
+
+	protected void handle(Path file, HttpExchange exchange) {
+		var bb = bodies.computeIfAbsent(file.toString(), _ -> {
+			try {
+				return Files.readAllBytes(file);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		var rs = exchange.response();
+		rs.setStatus(200);
+		rs.setHeaderValue("cache-control", "max-age=3600");
+		rs.setHeaderValue("content-type", ContentCoding.contentType(file));
+		rs.setHeaderValue("vary", "Accept-Encoding");
+		var c = ContentCoding.negotiate(exchange.request().getHeaderValue("accept-encoding"));
+		if (c != null) {
+			var b = bb;
+			bb = encodedBodies.computeIfAbsent(c + ":" + file, _ -> ContentCoding.encode(b, c));
+			rs.setHeaderValue("content-encoding", c);
+		}
+		rs.setHeaderValue("content-length", String.valueOf(bb.length));
+
+		try {
+			var b = ByteBuffer.wrap(bb);
+			while (b.hasRemaining())
+				((WritableByteChannel) rs.getBody()).write(b);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -35,18 +35,32 @@ import com.janilla.web.ResourceHandlerFactory;
 
 public class CustomApplicationHandlerFactory extends ApplicationHandlerFactory {
 
-	public CustomApplicationHandlerFactory(DiFactory diFactory) {
+	protected final CompressedResourceHandlerFactory compressedResourceHandlerFactory;
+
+	protected final DownloadHandlerFactory downloadHandlerFactory;
+
+	public CustomApplicationHandlerFactory(DiFactory diFactory, DownloadHandlerFactory downloadHandlerFactory,
+			CompressedResourceHandlerFactory compressedResourceHandlerFactory) {
+		this.downloadHandlerFactory = downloadHandlerFactory;
+		this.compressedResourceHandlerFactory = compressedResourceHandlerFactory;
 		super(diFactory);
 	}
 
 	@Override
 	protected List<HttpHandlerFactory> buildFactories() {
-		return super.buildFactories().stream().flatMap(
-				x -> x instanceof ResourceHandlerFactory ? Stream.of(x, buildDownloadHandlerFactory()) : Stream.of(x))
-				.toList();
+		return super.buildFactories().stream()
+				.flatMap(x -> x instanceof ResourceHandlerFactory
+						? Stream.of(buildCompressedResourceHandlerFactory(), x, buildDownloadHandlerFactory())
+						: Stream.of(x))
+				.filter(Objects::nonNull).toList();
+	}
+
+	protected CompressedResourceHandlerFactory buildCompressedResourceHandlerFactory() {
+		return compressedResourceHandlerFactory;
 	}
 
 	protected DownloadHandlerFactory buildDownloadHandlerFactory() {
-		return Objects.requireNonNull(diFactory.create(diFactory.actualType(DownloadHandlerFactory.class)));
+		return downloadHandlerFactory != null ? downloadHandlerFactory
+				: Objects.requireNonNull(diFactory.create(diFactory.actualType(DownloadHandlerFactory.class)));
 	}
 }
@@ -35,10 +35,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.janilla.blanktemplate.common.ContentCoding;
 import com.janilla.http.HttpClient;
 import com.janilla.http.HttpExchange;
 import com.janilla.http.HttpHandler;
@@ -52,6 +54,8 @@ public class DownloadHandlerFactory implements HttpHandlerFactory {
 
 	protected final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
 
+	protected final Map<String, byte[]> encodedBodies = new ConcurrentHashMap<>();
+
 	public DownloadHandlerFactory(Properties configuration, String configurationKey) {
 		var d = configuration.getProperty(configurationKey + ".download.directory");
 		if (d.startsWith("~"))
@@ -99,6 +103,10 @@ public class DownloadHandlerFactory implements HttpHandlerFactory {
 				}).collect(Collectors.toMap(x -> x.toString(), x -> x));
 	}
 
+	public Set<String> paths() {
+		return files.keySet();
+	}
+
 	@Override
 	public HttpHandler createHandler(Object object) {
 		var f = files != null && object instanceof HttpRequest r ? files.get(r.getPath()) : null;
@@ -123,24 +131,25 @@ public class DownloadHandlerFactory implements HttpHandlerFactory {
 		rs.setStatus(200);
 		rs.setHeaderValue("cache-control", "max-age=3600");
 
-		{
-			var n = file.getFileName().toString();
-			var i = n.lastIndexOf('.');
-			var e = i != -1 ? n.substring(i + 1).toLowerCase() : null;
-			var t = e != null ? switch (e) {
-			case "html" -> "text/html";
-			case "ico" -> "image/x-icon";
-			case "js" -> "text/javascript";
-			case "svg" -> "image/svg+xml";
-			default -> null;
-			} : null;
-			rs.setHeaderValue("content-type", t);
+		var t = ContentCoding.contentType(file);
+		rs.setHeaderValue("content-type", t);
+
+		if (ContentCoding.compressible(t)) {
+			rs.setHeaderValue("vary", "Accept-Encoding");
+			var c = ContentCoding.negotiate(exchange.request().getHeaderValue("accept-encoding"));
+			if (c != null) {
+				var b = bb;
+				bb = encodedBodies.computeIfAbsent(c + ":" + file, _ -> ContentCoding.encode(b, c));
+				rs.setHeaderValue("content-encoding", c);
+			}
 		}
 
 		rs.setHeaderValue("content-length", String.valueOf(bb.length));
 
 		try {
-			((WritableByteChannel) rs.getBody()).write(ByteBuffer.wrap(bb));
+			var b = ByteBuffer.wrap(bb);
+			while (b.hasRemaining())
+				((WritableByteChannel) rs.getBody()).write(b);
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
 		}
@@ -51,7 +51,11 @@ public interface Index {
 
 		@Override
 		public String apply(T value) {
-			return Json.format(value);
+			var e = new RenderEvent();
+			e.begin();
+			var s = Json.format(value);
+			e.end("json", null, s.length());
+			return s;
 		}
 	}
 
@@ -65,8 +69,12 @@ public interface Index {
 
 		@Override
 		public String apply(T value) {
-			return Json.format(
+			var e = new RenderEvent();
+			e.begin();
+			var s = Json.format(
 					diFactory.create(diFactory.actualType(ReflectionJsonIterator.class), Map.of("object", value, "includeType", true)));
+			e.end("state", null, s.length());
+			return s;
 		}
 	}
 
@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2025 Payload CMS, Inc. <info@payloadcms.com>
+ * Copyright (c) 2024-2026 Diego Schivo <diego.schivo@janilla.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.janilla.blanktemplate.frontend;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import com.janilla.blanktemplate.common.AbstractSettingsSource;
+import com.janilla.ioc.DiFactory;
+
+public class SettingsSource extends AbstractSettingsSource<Settings> {
+
+	public static final List<String> RESTART_KEYS = List.of("download.directory", "jwt.cookie",
+			"server.keystore.password", "server.keystore.path", "server.port");
+
+	public SettingsSource(Properties configuration, Path configurationFile, String configurationKey,
+			DiFactory diFactory) {
+		super(configuration, configurationFile, configurationKey, diFactory);
+	}
+
+	@Override
+	protected List<String> restartKeys() {
+		return RESTART_KEYS;
+	}
+
+	@Override
+	protected Settings settings(Properties configuration, String configurationKey) {
+		return Settings.of(configuration, configurationKey);
+	}
+}
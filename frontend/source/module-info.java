@@ -28,5 +28,9 @@ module com.janilla.blanktemplate.frontend {
 
 	opens com.janilla.blanktemplate.frontend;
 
+	requires jdk.jfr;
+
+	requires transitive com.janilla.blanktemplate.common;
+
 	requires transitive com.janilla.frontend;
 }